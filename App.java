@@ -1,10 +1,19 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import javafx.scene.input.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 public class App extends Application
@@ -12,15 +21,42 @@ public class App extends Application
     private Board board;
     private BorderPane bp;
     private Text t; 
+    private CheckBox optimal;
+    private Stage stage;
+
+    // Pick the size of the next Board
+    private Spinner<Integer> columns;
+    private Spinner<Integer> rows;
+
+    // The biggest Board that can be picked
+    private static final int MAX_SIDE = 10;
+
+    // The most room the Board takes up, in pixels
+    private static final int BOARD_PIXELS = 600;
+
+    // Shuffles every new Board, each solvable board equally likely
+    private final BoardGenerator generator = new BoardGenerator();
+
+    // Optimal solutions found so far, kept in a file between runs
+    private static final Path CACHE_FILE = Path.of("solutions.cache");
+    private final SolutionCache cache = new SolutionCache(10_000);
 
     @Override
     public void init()
     {
-
+        try {
+            if (Files.exists(CACHE_FILE)) {
+                cache.read(CACHE_FILE);
+            }
+        }
+        catch (IOException ex) {
+            System.err.println("Starting with an empty solution cache: " + ex.getMessage());
+        }
     }
     @Override
     public void start(Stage primary)
     {
+        this.stage = primary;
         primary.setTitle("Shift Game");
         // Make the center border pane
         this.bp = generateBorderPane();
@@ -75,7 +111,12 @@ public class App extends Application
     @Override
     public void stop()
     {
-
+        try {
+            cache.write(CACHE_FILE);
+        }
+        catch (IOException ex) {
+            System.err.println("Couldn't save the solution cache: " + ex.getMessage());
+        }
     }
 
     public static void main(String[] args) {
@@ -90,6 +131,12 @@ public class App extends Application
         // Make bp have the correct id for styling
         bp.setId("main-pane");
 
+        // Spinners for the size of the Board
+        this.columns = new Spinner<>(2, MAX_SIDE, 4);
+        this.rows = new Spinner<>(2, MAX_SIDE, 4);
+        columns.setPrefWidth(100);
+        rows.setPrefWidth(100);
+
         // Make the board and add it to the BorderPane
         this.board = generateBoard();
         bp.setCenter(this.board);
@@ -102,53 +149,101 @@ public class App extends Application
             //reset it or whatever
             this.board = generateBoard();
             bp.setCenter(this.board);
+
+            // The optimal solver only works on 4x4 Boards
+            optimal.setDisable(board.getColumns() != 4 || board.getRows() != 4);
+            if (optimal.isDisabled()) {
+                optimal.setSelected(false);
+            }
+            stage.sizeToScene();
         });
 
         
+        // Text for solver statistics and a toggle for the optimal solver
+        this.t = new Text();
+        this.optimal = new CheckBox("Optimal");
+        
         buttonPane.setBottom(resetButton);
-        buttonPane.setTop(t);
+        HBox size = new HBox(columns, new Label("x"), rows);
+        buttonPane.setTop(new VBox(size, optimal, t));
         bp.setRight(buttonPane);
 
         Button solveButton = new Button("Solve");
         buttonPane.setCenter(solveButton);
         solveButton.setOnAction(e -> {
-            Solver.solve(board);
+            if (optimal.isSelected()) {
+                solveOptimal();
+            }
+            else {
+                Solver.solve(board);
+            }
         });
 
         return bp;
     }
 
+    // Find a shortest solution off the UI thread and play it back on the Board
+    private void solveOptimal() {
+        Board target = this.board;
+        BoardState state = target.getState();
+        if (state.isSolved()) {
+            return;
+        }
+
+        t.setText("Solving...");
+        Thread worker = new Thread(() -> {
+            // Shallow boards are solved from both ends, anything else with IDA*
+            // The pattern databases are built the first time IDA* needs them
+            // and boards solved before, or their mirror images, come from the cache
+            SolveResult result = new AutoSolver(PatternDatabaseHeuristic::defaultHeuristic, cache).solve(state);
+            Platform.runLater(() -> {
+                t.setText(result.toString());
+
+                // Don't touch the Board if it was reset while solving
+                if (target == this.board) {
+                    target.playMoves(result.moves());
+                }
+            });
+        });
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     // Generate a Board that is guaranteed to be solvable
     private Board generateBoard()
     {
-        // Make an empty Tile ahead of time
-        Tile empty = new Tile(-1);
-        
-        // Fill in an ArrayList with all the tiles
+        int w = columns.getValue();
+        int h = rows.getValue();
+
+        // Shuffle a random solvable board and make a Tile for each cell
+        GridState state = generator.nextGrid(w, h);
+        Tile empty = null;
         ArrayList<Tile> tiles = new ArrayList<>();
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                // Make sure that this isn't the corner tile
-                if (j != 3 || i != 3) {
-                    tiles.add(new Tile(i*4+j+1));
-                }
+        for (int pos = 0; pos < state.size(); pos++) {
+            if (state.get(pos) == GridState.EMPTY) {
+                empty = new Tile(-1);
+                tiles.add(empty);
+            }
+            else {
+                tiles.add(new Tile(state.get(pos)));
             }
         }
 
-        // Apply a Permutation
-        Permutation p = Permutation.randomPermutation(15, 100);
-        p.applyToList(tiles);
-
-        // Add the empty Tile
-        tiles.add(empty);
-
         // Add the Tiles to a board
-        Board b = new Board(tiles);
+        Board b = new Board(tiles, w, h);
+
+        // Shrink the Tiles so bigger Boards still fit on the screen
+        // 4x4 Boards keep the size from the stylesheet
+        int tileSize = Math.min(Tile.size, BOARD_PIXELS / Math.max(w, h));
 
         // Make the Tiles know their Board
         for (Tile t : tiles)
         {
             t.setBoard(b);
+            if (tileSize < Tile.size) {
+                t.setStyle(String.format("-fx-font-size: %dpx; -fx-min-width: %dpx; -fx-min-height: %dpx;"
+                        + " -fx-pref-width: %dpx; -fx-pref-height: %dpx;", tileSize / 3, tileSize, tileSize, tileSize, tileSize));
+            }
         }
 
         // Set the empty Tile and make it invisible
@@ -0,0 +1,106 @@
+import java.util.function.Supplier;
+
+/**
+ * Picks the fastest optimal search for each board.
+ *
+ * Boards that look shallow go to BidirectionalSolver, which needs no
+ * heuristic, and everything else, including shallow boards where the
+ * bidirectional search runs out of room, goes to IDASolver. The heuristic
+ * is only asked for the first time IDA* is needed, so pattern databases
+ * aren't built for boards that never use them.
+ *
+ * The solver that found each solution is named in its SolveResult, so
+ * latency can be reported for each one separately. Like IDASolver, an
+ * AutoSolver can only run one solve at a time.
+ *
+ * If it is given a SolutionCache, boards whose solution, or whose
+ * reflection's solution, is already cached aren't searched at all, and
+ * their SolveResults name the cache as the solver. The cache can be shared
+ * with other AutoSolvers.
+ */
+public class AutoSolver
+{
+    private final Supplier<Heuristic> heuristic;
+    private final SolutionCache cache;
+    private final BidirectionalSolver bidirectional = new BidirectionalSolver();
+    private IDASolver ida;
+
+    /**
+     * Create an AutoSolver
+     * @param heuristic gives the heuristic for IDA* the first time it's needed
+     */
+    public AutoSolver(Supplier<Heuristic> heuristic)
+    {
+        this(heuristic, null);
+    }
+
+    /**
+     * Create an AutoSolver that checks a cache before searching
+     * @param heuristic gives the heuristic for IDA* the first time it's needed
+     * @param cache     holds the solutions found so far, or null to always search
+     */
+    public AutoSolver(Supplier<Heuristic> heuristic, SolutionCache cache)
+    {
+        this.heuristic = heuristic;
+        this.cache = cache;
+    }
+
+    /**
+     * Find a shortest solution for the given board
+     * @param start the board to solve, which is not changed
+     * @return the moves of a shortest solution and search statistics,
+     * with the name of the solver that found them
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public SolveResult solve(BoardState start)
+    {
+        return solve(start, false, 0);
+    }
+
+    /**
+     * Find a shortest solution for the given board, giving up if IDA* takes
+     * too long or the calling thread is interrupted
+     * @param start   the board to solve, which is not changed
+     * @param timeout the most time to spend, in nanoseconds
+     * @return the moves of a shortest solution and search statistics, with
+     * the name of the solver that found them, or null if it gave up
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public SolveResult solve(BoardState start, long timeout)
+    {
+        return solve(start, true, timeout);
+    }
+
+    private SolveResult solve(BoardState start, boolean timed, long timeout)
+    {
+        long time = System.nanoTime();
+        if (cache != null)
+        {
+            byte[] moves = cache.get(start);
+            if (moves != null)
+            {
+                return new SolveResult(moves, 0, System.nanoTime() - time, "cache");
+            }
+        }
+
+        SolveResult result = null;
+        if (BidirectionalSolver.isShallow(start))
+        {
+            result = bidirectional.solve(start);
+        }
+        if (result == null)
+        {
+            if (ida == null)
+            {
+                ida = new IDASolver(heuristic.get());
+            }
+            result = timed ? ida.solve(start, timeout - (System.nanoTime() - time)) : ida.solve(start);
+        }
+
+        if (cache != null && result != null)
+        {
+            cache.put(start, result.moves());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves boards without JavaFX, one board per line.
+ *
+ * Each input line holds the 16 values of a board in row-major order,
+ * separated by spaces or commas, with -1 or 0 for the empty cell. The same
+ * format Board.toString() prints, like [1, 2, 3, ..., 15, -1], is accepted.
+ *
+ * Each output line is the moves (U, D, L, R for the direction the empty cell
+ * moves, or - if it is already solved), the number of moves, the time in
+ * milliseconds, the nodes expanded and the solver AutoSolver picked,
+ * separated by tabs. Lines come out in the same order they went in. At the
+ * end the latency of each solver is printed separately.
+ *
+ * With -c, solutions are cached in the given file between runs, and boards
+ * already in it, or whose reflection is, come back with the cache as solver.
+ *
+ * The wd heuristic takes the largest of walking distance, inversion distance
+ * and the taxicab distance with linear conflicts, with no files to load.
+ *
+ * Usage: java BatchSolver [-t threads] [-h manhattan|wd|pdb] [-c cache] [file]
+ */
+public class BatchSolver
+{
+    // How many boards each thread can have queued before reading stops
+    private static final int QUEUE_PER_THREAD = 4;
+
+    // The most solutions -c keeps
+    private static final int CACHE_ENTRIES = 100_000;
+
+    private final ExecutorService pool;
+    private final int window;
+    private final ThreadLocal<AutoSolver> solvers;
+
+    // Latency of each solver, by the name in its SolveResult
+    private final Map<String, Latency> latency = new ConcurrentHashMap<>();
+
+    // Solve times for one solver, added to from every thread
+    private static class Latency
+    {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void add(long time)
+        {
+            count.increment();
+            nanos.add(time);
+            max.accumulate(time);
+        }
+    }
+
+    /**
+     * Create a BatchSolver
+     * @param threads   how many boards to solve at once
+     * @param heuristic the heuristic every solver uses, which must be safe to share
+     */
+    public BatchSolver(int threads, Heuristic heuristic)
+    {
+        this(threads, heuristic, null);
+    }
+
+    /**
+     * Create a BatchSolver that looks boards up in a cache before solving them
+     * @param threads   how many boards to solve at once
+     * @param heuristic the heuristic every solver uses, which must be safe to share
+     * @param cache     the solutions every solver shares, or null to solve every board
+     */
+    public BatchSolver(int threads, Heuristic heuristic, SolutionCache cache)
+    {
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.window = threads * QUEUE_PER_THREAD;
+        this.solvers = ThreadLocal.withInitial(() -> new AutoSolver(() -> heuristic, cache));
+    }
+
+    /**
+     * Solve every board in in and write one result line per board to out,
+     * in input order. Only a fixed number of boards are held in memory at once.
+     * @param in  where to read boards from
+     * @param out where to write results to
+     * @return the number of boards read
+     * @throws IOException if reading fails
+     */
+    public long run(BufferedReader in, PrintWriter out) throws IOException
+    {
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        long count = 0;
+
+        String line;
+        while ((line = in.readLine()) != null)
+        {
+            if (line.isBlank())
+            {
+                continue;
+            }
+
+            // Wait for the oldest board before reading more than the window
+            if (pending.size() >= window)
+            {
+                out.println(await(pending.poll()));
+            }
+
+            String board = line;
+            pending.add(pool.submit(() -> solveLine(board)));
+            count++;
+        }
+
+        while (!pending.isEmpty())
+        {
+            out.println(await(pending.poll()));
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Get the number of boards, mean and worst solve time for each solver
+     * used so far, one line per solver
+     * @return the latency report
+     */
+    public String latencyReport()
+    {
+        StringBuilder sb = new StringBuilder();
+        latency.forEach((solver, l) -> sb.append(String.format("%s: %d boards, mean %.3f ms, max %.3f ms%n",
+                solver, l.count.sum(), l.nanos.sum() / 1e6 / Math.max(1, l.count.sum()), l.max.get() / 1e6)));
+        return sb.toString();
+    }
+
+    /**
+     * Stop the threads used by this BatchSolver
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Parse a board from a line of text
+     * @param line 16 values separated by spaces or commas, optionally in brackets
+     * @return the board on the line
+     * @throws IllegalArgumentException if the line isn't a valid board
+     */
+    public static BoardState parse(String line)
+    {
+        String[] parts = line.replace("[", " ").replace("]", " ").trim().split("[\\s,]+");
+        if (parts.length != BoardState.SIZE)
+        {
+            throw new IllegalArgumentException("expected 16 values but found " + parts.length);
+        }
+
+        int[] values = new int[BoardState.SIZE];
+        for (int i = 0; i < values.length; i++)
+        {
+            try
+            {
+                values[i] = Integer.parseInt(parts[i]);
+            }
+            catch (NumberFormatException ex)
+            {
+                throw new IllegalArgumentException("not a number: " + parts[i]);
+            }
+        }
+        return BoardState.fromValues(values);
+    }
+
+    /**
+     * Get a heuristic by the name given on the command line
+     * @param name manhattan, wd or pdb
+     * @return the heuristic, which is safe to share between threads
+     * @throws IllegalArgumentException if the name isn't one of those
+     */
+    public static Heuristic heuristic(String name)
+    {
+        return switch (name)
+        {
+            case "manhattan" -> new ManhattanHeuristic();
+            case "wd" -> new MaxHeuristic(new ManhattanHeuristic(), new WalkingDistanceHeuristic(),
+                    new InversionDistanceHeuristic());
+            case "pdb" -> PatternDatabaseHeuristic.defaultHeuristic();
+            default -> throw new IllegalArgumentException("unknown heuristic: " + name);
+        };
+    }
+
+    // Solve one line and format the result
+    private String solveLine(String line)
+    {
+        try
+        {
+            SolveResult r = solvers.get().solve(parse(line));
+            latency.computeIfAbsent(r.solver(), k -> new Latency()).add(r.nanos());
+            String moves = r.length() == 0 ? "-" : r.movesString();
+            return String.format("%s\t%d\t%.3f\t%d\t%s", moves, r.length(), r.millis(), r.nodes(), r.solver());
+        }
+        catch (IllegalArgumentException ex)
+        {
+            return "error: " + ex.getMessage();
+        }
+    }
+
+    // Wait for a result, turning failures into an error line
+    private static String await(Future<String> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            return "error: interrupted";
+        }
+        catch (ExecutionException ex)
+        {
+            return "error: " + ex.getCause();
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String heuristicName = "pdb";
+        String file = null;
+        Path cacheFile = null;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-t" -> threads = Integer.parseInt(args[++i]);
+                case "-h" -> heuristicName = args[++i];
+                case "-c" -> cacheFile = Path.of(args[++i]);
+                default -> file = args[i];
+            }
+        }
+
+        Heuristic heuristic = heuristic(heuristicName);
+
+        BufferedReader in = file == null || file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file));
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+
+        SolutionCache cache = null;
+        if (cacheFile != null)
+        {
+            cache = new SolutionCache(CACHE_ENTRIES);
+            if (Files.exists(cacheFile))
+            {
+                cache.read(cacheFile);
+            }
+        }
+
+        BatchSolver solver = new BatchSolver(threads, heuristic, cache);
+        long start = System.nanoTime();
+        long count;
+        try (in)
+        {
+            count = solver.run(in, out);
+        }
+        finally
+        {
+            solver.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Solved %d boards on %d threads in %.2f s (%.1f boards/s)%n",
+                count, threads, seconds, count / seconds);
+        System.err.print(solver.latencyReport());
+        if (cache != null)
+        {
+            System.err.println("Cache: " + cache);
+            cache.write(cacheFile);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+import java.util.Arrays;
+
+/**
+ * Finds a shortest solution by searching breadth first from both the
+ * start and the solved board until the two searches meet.
+ *
+ * The search from the solved board is the same for every start, so it is
+ * done once, as deep as fits in GOAL_BOARDS boards, and shared by every
+ * BidirectionalSolver. Each solve then only searches forward from the
+ * start until it reaches a board in that set, which for a board 24 moves
+ * from solved means going 6 moves deep instead of 24, with no
+ * heuristic or pattern database at all. Deep boards would need far too
+ * much memory, so the forward search gives up once it has seen a set
+ * number of boards, and AutoSolver only uses this for boards that look shallow.
+ *
+ * Boards are kept as packed longs in a LongIntMap for each side. The value
+ * for each board holds how deep it is, where its empty cell is and the move
+ * that reached it, so the path can be rebuilt without storing parents.
+ */
+public class BidirectionalSolver
+{
+    // Boards whose estimate is at most this solve faster this way than with
+    // IDA* and the default pattern databases, past it the forward search
+    // grows faster than IDA* does
+    public static final int SHALLOW_ESTIMATE = 17;
+
+    // Boards the forward search can see before giving up, a few tens of ms of searching
+    public static final int DEFAULT_MAX_BOARDS = 1 << 18;
+
+    // Boards to keep from the search from the solved board, which is
+    // every board up to 18 moves away, about 25 MB
+    private static final int GOAL_BOARDS = 1 << 20;
+
+    // Used to decide if a board looks shallow
+    private static final Heuristic ESTIMATE = new ManhattanHeuristic();
+
+    // How far the empty cell's index changes for each direction
+    private static final int[] OFFSET = {-BoardState.WIDTH, BoardState.WIDTH, -1, 1};
+
+    // Marks the start board of each side, which wasn't reached by a move
+    private static final int ROOT = 4;
+
+    // Every board within goalDepth moves of solved, built the first time it's needed
+    // Never changed after it's built, so every thread can read it
+    private static LongIntMap goalSide;
+    private static int goalDepth;
+
+    private final int maxBoards;
+
+    // The layer being expanded and the one being built
+    private long[] layer = new long[64];
+    private long[] next = new long[64];
+
+    /**
+     * Create a BidirectionalSolver that gives up after DEFAULT_MAX_BOARDS boards
+     */
+    public BidirectionalSolver()
+    {
+        this(DEFAULT_MAX_BOARDS);
+    }
+
+    /**
+     * Create a BidirectionalSolver
+     * @param maxBoards how many boards the forward search can see before giving up
+     */
+    public BidirectionalSolver(int maxBoards)
+    {
+        this.maxBoards = maxBoards;
+    }
+
+    /**
+     * Check if a board looks close enough to solved for this solver to be the fast choice
+     * @param state the board to check
+     * @return true if the board's taxicab distance plus linear conflicts is at most SHALLOW_ESTIMATE
+     */
+    public static boolean isShallow(BoardState state)
+    {
+        return ESTIMATE.estimate(state) <= SHALLOW_ESTIMATE;
+    }
+
+    /**
+     * Find a shortest solution for the given board
+     * @param start the board to solve, which is not changed
+     * @return the moves of a shortest solution and search statistics,
+     * or null if the search saw too many boards without the sides meeting
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public SolveResult solve(BoardState start)
+    {
+        if (!start.isSolvable())
+        {
+            throw new IllegalArgumentException("board is not solvable");
+        }
+
+        LongIntMap goal = goalSide();
+        long startTime = System.nanoTime();
+
+        // A new map each time, since clearing a big one costs more than a small one
+        LongIntMap forward = new LongIntMap(1 << 10);
+        forward.put(start.packed(), entry(0, start.emptyPos(), ROOT));
+        layer[0] = start.packed();
+        int size = 1;
+
+        long meet = 0;
+        int best = Integer.MAX_VALUE;
+        if (goal.get(start.packed()) >= 0)
+        {
+            meet = start.packed();
+            best = depth(goal.get(meet));
+        }
+
+        // A solution of length L reaches the goal side by forward depth L - goalDepth,
+        // so once that's past the best found nothing shorter is left
+        long nodes = 0;
+        for (int depth = 0; best > depth + goalDepth + 1; depth++)
+        {
+            if (size == 0 || forward.size() > maxBoards)
+            {
+                return null;
+            }
+
+            nodes += size;
+            int count = 0;
+            for (int i = 0; i < size; i++)
+            {
+                long packed = layer[i];
+                int value = forward.get(packed);
+                int empty = empty(value);
+                int prev = dir(value);
+                for (int dir = 0; dir < 4; dir++)
+                {
+                    if (dir == (prev ^ 1) || !onBoard(empty, dir))
+                    {
+                        continue;
+                    }
+
+                    int target = empty + OFFSET[dir];
+                    long child = slide(packed, empty, target);
+                    if (forward.get(child) >= 0)
+                    {
+                        continue;
+                    }
+                    forward.put(child, entry(depth + 1, target, dir));
+
+                    int met = goal.get(child);
+                    if (met >= 0 && depth + 1 + depth(met) < best)
+                    {
+                        meet = child;
+                        best = depth + 1 + depth(met);
+                    }
+
+                    if (count == next.length)
+                    {
+                        next = Arrays.copyOf(next, count * 2);
+                    }
+                    next[count++] = child;
+                }
+            }
+
+            long[] t = layer;
+            layer = next;
+            next = t;
+            size = count;
+        }
+
+        return new SolveResult(path(forward, goal, meet), nodes, System.nanoTime() - startTime, "bidirectional");
+    }
+
+    // Rebuild the moves from the start to the solved board through the meeting board
+    private static byte[] path(LongIntMap forward, LongIntMap goal, long meet)
+    {
+        int forwardDepth = depth(forward.get(meet));
+        int goalDepth = depth(goal.get(meet));
+        byte[] moves = new byte[forwardDepth + goalDepth];
+
+        // Walk back to the start, filling the first half from the end
+        long packed = meet;
+        for (int i = forwardDepth - 1; i >= 0; i--)
+        {
+            int value = forward.get(packed);
+            int dir = dir(value);
+            moves[i] = (byte) dir;
+            packed = slide(packed, empty(value), empty(value) - OFFSET[dir]);
+        }
+
+        // Walk on to the solved board by undoing the goal side's moves
+        packed = meet;
+        for (int i = forwardDepth; i < moves.length; i++)
+        {
+            int value = goal.get(packed);
+            int dir = dir(value) ^ 1;
+            moves[i] = (byte) dir;
+            packed = slide(packed, empty(value), empty(value) + OFFSET[dir]);
+        }
+        return moves;
+    }
+
+    // Search breadth first from the solved board, a whole layer at a
+    // time, until the next layer would go over GOAL_BOARDS
+    private static synchronized LongIntMap goalSide()
+    {
+        if (goalSide == null)
+        {
+            LongIntMap map = new LongIntMap(GOAL_BOARDS);
+            map.put(BoardState.SOLVED, entry(0, BoardState.SIZE - 1, ROOT));
+            long[] current = {BoardState.SOLVED};
+            int size = 1;
+            int depth = 0;
+
+            // Each layer is about twice the size of the one before
+            while (map.size() + 2L * size <= GOAL_BOARDS)
+            {
+                long[] layer = new long[size * 3];
+                int count = 0;
+                for (int i = 0; i < size; i++)
+                {
+                    long packed = current[i];
+                    int value = map.get(packed);
+                    int empty = empty(value);
+                    for (int dir = 0; dir < 4; dir++)
+                    {
+                        if (dir == (dir(value) ^ 1) || !onBoard(empty, dir))
+                        {
+                            continue;
+                        }
+                        int target = empty + OFFSET[dir];
+                        long child = slide(packed, empty, target);
+                        if (map.get(child) < 0)
+                        {
+                            map.put(child, entry(depth + 1, target, dir));
+                            layer[count++] = child;
+                        }
+                    }
+                }
+                current = layer;
+                size = count;
+                depth++;
+            }
+
+            goalDepth = depth;
+            goalSide = map;
+        }
+        return goalSide;
+    }
+
+    // Slide the Tile at target into the empty cell
+    private static long slide(long packed, int empty, int target)
+    {
+        int shift = target << 2;
+        long tile = (packed >>> shift) & 0xF;
+        return (packed & ~(0xFL << shift)) | (tile << (empty << 2));
+    }
+
+    private static boolean onBoard(int empty, int dir)
+    {
+        int x = empty % BoardState.WIDTH;
+        int y = empty / BoardState.WIDTH;
+        return switch (dir)
+        {
+            case BoardState.UP -> y > 0;
+            case BoardState.DOWN -> y < BoardState.HEIGHT - 1;
+            case BoardState.LEFT -> x > 0;
+            default -> x < BoardState.WIDTH - 1;
+        };
+    }
+
+    // Map values are depth << 7 | empty cell << 3 | the move that reached the board
+    private static int entry(int depth, int empty, int dir)
+    {
+        return depth << 7 | empty << 3 | dir;
+    }
+
+    private static int depth(int value)
+    {
+        return value >>> 7;
+    }
+
+    private static int empty(int value)
+    {
+        return (value >>> 3) & 0xF;
+    }
+
+    private static int dir(int value)
+    {
+        return value & 7;
+    }
+}
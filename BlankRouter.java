@@ -0,0 +1,148 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Finds shortest paths for the empty cell around locked cells on the 4x4 board.
+ *
+ * For each set of locked cells and target cell, a breadth first search from
+ * the target records which way the empty cell should step from every other
+ * cell. The result is cached, so after the first call for a (locked, target)
+ * pair every route is just a walk through a 16 entry table.
+ */
+public class BlankRouter
+{
+    // Marks a cell the empty cell can't reach the target from
+    private static final byte UNREACHABLE = -1;
+
+    // Marks the target itself
+    private static final byte ARRIVED = 4;
+
+    // How far the empty cell's index changes for each direction
+    private static final int[] OFFSET = {-BoardState.WIDTH, BoardState.WIDTH, -1, 1};
+
+    // Shared by every Solver, safe to use from any thread
+    private static final BlankRouter INSTANCE = new BlankRouter();
+
+    // Next step tables indexed by (locked << 4) | target, filled in lazily
+    private final AtomicReferenceArray<byte[]> steps =
+            new AtomicReferenceArray<>((1 << BoardState.SIZE) * BoardState.SIZE);
+
+    private BlankRouter()
+    {
+    }
+
+    /**
+     * Get the shared BlankRouter
+     * @return the BlankRouter for the 4x4 board
+     */
+    public static BlankRouter get()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Find a shortest path for the empty cell that doesn't pass through any locked cell
+     * @param from   the index the empty cell starts at
+     * @param to     the index the empty cell should end at
+     * @param locked a bitmask of the cells the empty cell can't enter
+     * @return the directions to move the empty cell in, using the constants
+     * from BoardState, or null if there is no such path
+     */
+    public byte[] route(int from, int to, int locked)
+    {
+        int length = distance(from, to, locked);
+        if (length < 0)
+        {
+            return null;
+        }
+
+        byte[] table = steps(to, locked);
+        byte[] path = new byte[length];
+        int pos = from;
+        for (int i = 0; i < length; i++)
+        {
+            path[i] = table[pos];
+            pos += OFFSET[table[pos]];
+        }
+        return path;
+    }
+
+    /**
+     * Get the length of a shortest path for the empty cell
+     * @param from   the index the empty cell starts at
+     * @param to     the index the empty cell should end at
+     * @param locked a bitmask of the cells the empty cell can't enter
+     * @return the number of moves in a shortest path, or -1 if there is no path
+     */
+    public int distance(int from, int to, int locked)
+    {
+        byte[] table = steps(to, locked);
+        int length = 0;
+        for (int pos = from; table[pos] != ARRIVED; length++)
+        {
+            if (table[pos] == UNREACHABLE)
+            {
+                return -1;
+            }
+            pos += OFFSET[table[pos]];
+        }
+        return length;
+    }
+
+    // Get the cached next step table, building it the first time
+    private byte[] steps(int to, int locked)
+    {
+        // The target never counts as locked
+        locked &= ~(1 << to);
+        int key = (locked << 4) | to;
+
+        byte[] table = steps.get(key);
+        if (table == null)
+        {
+            // Two threads may build the same table, which is harmless
+            table = build(to, locked);
+            steps.set(key, table);
+        }
+        return table;
+    }
+
+    // Breadth first search outwards from the target
+    private static byte[] build(int to, int locked)
+    {
+        byte[] table = new byte[BoardState.SIZE];
+        Arrays.fill(table, UNREACHABLE);
+        table[to] = ARRIVED;
+
+        int[] queue = new int[BoardState.SIZE];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = to;
+
+        while (head < tail)
+        {
+            int pos = queue[head++];
+            int x = pos % BoardState.WIDTH;
+            int y = pos / BoardState.WIDTH;
+            for (int dir = 0; dir < 4; dir++)
+            {
+                // Work out the neighbor the empty cell would step from
+                int nx = x - BoardState.dx(dir);
+                int ny = y - BoardState.dy(dir);
+                if (nx < 0 || ny < 0 || nx >= BoardState.WIDTH || ny >= BoardState.HEIGHT)
+                {
+                    continue;
+                }
+                int n = ny * BoardState.WIDTH + nx;
+                if (table[n] != UNREACHABLE || (locked & (1 << n)) != 0)
+                {
+                    continue;
+                }
+
+                // Stepping in dir from n leads one step closer to the target
+                table[n] = (byte) dir;
+                queue[tail++] = n;
+            }
+        }
+        return table;
+    }
+}
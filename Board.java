@@ -8,29 +8,67 @@ import javafx.scene.layout.GridPane;
 
 public class Board extends GridPane
 {
-    // Keep track of all tiles
-    private ArrayList<Tile> tiles; 
+    // The size of the Board in Tiles
+    private final int columns;
+    private final int rows;
+
+    // Keep track of all tiles, indexed by position (y * columns + x)
+    private Tile[] tiles;
+
+    // The position of every Tile, indexed by value
+    // The empty Tile's value is -1, so it is kept at index 0
+    private int[] positions;
+
+    // How many Tiles have been added
+    private int count;
 
     // Keep track of the empty tile
     private Tile emptyTile;
 
+    // Headless copy of the board that is kept in sync with the GridPane
+    private GridState state;
+
     //Keep track of the solveable of the board 
     public Boolean solved = false; 
     /**
-     * Create an empty Board with no Tiles
+     * Create an empty 4x4 Board with no Tiles
      */
     public Board()
+    {
+        this(4, 4);
+    }
+
+    /**
+     * Create an empty Board with no Tiles
+     * @param columns the number of Tiles in each row
+     * @param rows    the number of Tiles in each column
+     */
+    public Board(int columns, int rows)
     {
         super();
-        this.tiles = new ArrayList<>(); 
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = new Tile[columns * rows];
+        this.positions = new int[columns * rows];
+        Arrays.fill(positions, -1);
     }
 
     /**
-     * Create a Board with all the Tiles from Tiles
+     * Create a 4x4 Board with all the Tiles from Tiles
      * @param tiles a list of Tiles to have in the Board at the start
      */
     public Board(ArrayList<Tile> tileList) {
-        super();
+        this(tileList, 4, 4);
+    }
+
+    /**
+     * Create a Board with all the Tiles from Tiles
+     * @param tiles   a list of Tiles to have in the Board at the start, in row-major order
+     * @param columns the number of Tiles in each row
+     * @param rows    the number of Tiles in each column
+     */
+    public Board(ArrayList<Tile> tileList, int columns, int rows) {
+        this(columns, rows);
         
         /* // Add Tiles to internal ArrayList
         this.tiles = tiles;
@@ -50,18 +88,17 @@ public class Board extends GridPane
                 y++;
             }
         } */
-        this.tiles = new ArrayList<>();
 
         int x = 0;
         int y = 0;
         for (Tile t : tileList) {
-            // Add the Tile to the ArrayList
+            // Add the Tile to the Board
             this.addTile(t, x, y);
 
             // Move to the next position, wrapping as necessary
             x++;
-            if (x >= 4) {
-                x %= 4;
+            if (x >= columns) {
+                x %= columns;
                 y++;
             }
         }
@@ -75,8 +112,22 @@ public class Board extends GridPane
      */
     public void addTile(Tile obj, int x, int y)
     {
-        // Add to the Board ArrayList
-        tiles.add(obj);
+        // Add to the Board's indexes
+        int pos = y * columns + x;
+        tiles[pos] = obj;
+        positions[slot(obj.value())] = pos;
+        count++;
+
+        // Once every Tile is in place, build the headless state
+        if (count == tiles.length)
+        {
+            int[] values = new int[tiles.length];
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = tiles[i].value();
+            }
+            state = GridState.fromValues(columns, rows, values);
+        }
 
         // Add to the GridPane
         if (obj.value() == -1)
@@ -94,18 +145,24 @@ public class Board extends GridPane
     private void swap(int j, int k)
     {
         // Get the Tiles
-        Tile a = tiles.get(j);
-        Tile b = tiles.get(k);
+        Tile a = tiles[j];
+        Tile b = tiles[k];
 
         // Get the position in the GridPane
-        int ax = getRowIndex(a);
-        int ay = getColumnIndex(a);
-        int bx = getRowIndex(b);
-        int by = getColumnIndex(b);
-
-        // Swap the Tiles in the ArrayList
-        tiles.set(j, b);
-        tiles.set(k, a);
+        int ax = j / columns;
+        int ay = j % columns;
+        int bx = k / columns;
+        int by = k % columns;
+
+        // Swap the Tiles in both indexes
+        tiles[j] = b;
+        tiles[k] = a;
+        positions[slot(a.value())] = k;
+        positions[slot(b.value())] = j;
+
+        // Mirror the swap in the headless state
+        int empty = state.emptyPos();
+        state.apply(state.direction(empty, j == empty ? k : j));
         
         // Visually swap the Tiles
         setRowIndex(a, bx);
@@ -122,11 +179,11 @@ public class Board extends GridPane
     public boolean swapTile(Tile swap_obj)
     {
         // Get the index of the current Tile and the empty Tile
-        int tilePos = tiles.indexOf(swap_obj);
-        int emptyPos = tiles.indexOf(emptyTile);
+        int tilePos = positions[slot(swap_obj.value())];
+        int emptyPos = positions[slot(-1)];
         
         // Check if tilePos is visually above or below emptyPos
-        if (tilePos + 4 == emptyPos || tilePos -4 == emptyPos)
+        if (tilePos + columns == emptyPos || tilePos - columns == emptyPos)
         {
             swap(tilePos, emptyPos);
             return true;
@@ -135,7 +192,7 @@ public class Board extends GridPane
         }
         // Check if tilePos is visually to the left of emptyPos
         // Special case for edges
-        if (tilePos + 1 == emptyPos && tilePos % 4 != 3)
+        if (tilePos + 1 == emptyPos && tilePos % columns != columns - 1)
         {
             swap(tilePos, emptyPos);
             return true;
@@ -143,7 +200,7 @@ public class Board extends GridPane
 
         // Check if tilePos is visually to the right of emptyPos
         // Special case for edges
-        if (tilePos - 1 == emptyPos && tilePos % 4 != 0)
+        if (tilePos - 1 == emptyPos && tilePos % columns != 0)
         {
             swap(tilePos, emptyPos);
             return true;
@@ -162,8 +219,8 @@ public class Board extends GridPane
     public void swapTileRelativeToEmpty(int x, int y)
     {
         // Get the coordinates of the empty Tile
-        int ex = getColumnIndex(emptyTile);
-        int ey = getRowIndex(emptyTile);
+        int ex = positions[slot(-1)] % columns;
+        int ey = positions[slot(-1)] / columns;
 
         // Calculate the new offset and get the new Tile
         int tx = ex + x;
@@ -177,6 +234,19 @@ public class Board extends GridPane
         }
     }
 
+    /**
+     * Play a list of moves on this Board
+     * @param moves the directions the empty Tile moves in, using the
+     * constants from BoardState
+     */
+    public void playMoves(byte[] moves)
+    {
+        for (byte m : moves)
+        {
+            swapTileRelativeToEmpty(BoardState.dx(m), BoardState.dy(m));
+        }
+    }
+
     /**
      * Get the Tile at (x, y)
      * @param x the x coordinate of the Tile to look for
@@ -185,16 +255,11 @@ public class Board extends GridPane
      */
     public Tile getTile(int x, int y)
     {
-        for (Tile t : tiles)
+        if (x < 0 || x >= columns || y < 0 || y >= rows)
         {
-            int tx = getColumnIndex(t);
-            int ty = getRowIndex(t);
-            if (tx == x && ty == y)
-            {
-                return t;
-            }
+            return null;
         }
-        return null;
+        return tiles[y * columns + x];
     }
 
     /**
@@ -204,32 +269,37 @@ public class Board extends GridPane
      */
     public Tile getTile(int val)
     {
-        for (Tile t : tiles)
+        if (val != -1 && (val < 1 || val >= tiles.length))
         {
-            if (t.value() == val) {
-                return t;
-            }
+            return null;
         }
-        return null;
+        int pos = positions[slot(val)];
+        return pos == -1 ? null : tiles[pos];
     }
 
     public String toString()
     {
         StringBuffer sb = new StringBuffer();
-        if (tiles.size() == 0)
+        if (count == 0)
         {
             return "[]";
         }
         sb.append("[");
-        for(int k = 0; k < tiles.size() - 1; k++)
+        for(int k = 0; k < count - 1; k++)
         {
-            sb.append(String.format("%s, ", tiles.get(k).value()));  
+            sb.append(String.format("%s, ", tiles[k].value()));  
 
         }
-        sb.append(String.format("%s]",tiles.get(tiles.size() - 1).value()));
+        sb.append(String.format("%s]",tiles[count - 1].value()));
         return sb.toString();
     }
 
+    // Index into positions for a Tile value
+    private static int slot(int value)
+    {
+        return value == -1 ? 0 : value;
+    }
+
     /**
      * Set the empty Tile for this Board
      * @param t the Tile to set as the empty Tile
@@ -246,30 +316,46 @@ public class Board extends GridPane
         return this.emptyTile;
     }
 
+    /**
+     * Get the number of Tiles in each row
+     * @return the width of this Board in Tiles
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of Tiles in each column
+     * @return the height of this Board in Tiles
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get a copy of the headless state of a 4x4 Board
+     * @return a BoardState matching the Tiles on this Board
+     * @throws IllegalStateException if this Board isn't 4x4
+     */
+    public BoardState getState() {
+        return state.toBoardState();
+    }
+
+    /**
+     * Get a copy of the headless state of this Board
+     * @return a GridState matching the Tiles on this Board
+     */
+    public GridState getGridState() {
+        return state.copy();
+    }
+
     /**
      * checks if the -1 tile is in top left or top right
      * @return true if tile on top left or bottom right AND List is ordered, false otherwise
      */
     public Boolean check()
     {
-        ArrayList<Integer> validNumTop = new ArrayList<>(Arrays.asList(-1,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15));
-        ArrayList<Integer> validNumBottom = new ArrayList<>(Arrays.asList(1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,-1));
-        for(int i = 0; i < 16; i++)
-        {
-            if(tiles.get(i).value() != validNumTop.get(i) && tiles.get(15).value() != -1)
-            {
-                return false;
-            }
-        }
-        for(int i = 0; i < 16; i++)
-        {
-            if(tiles.get(i).value() != validNumBottom.get(i) && tiles.get(0).value() != -1)
-            {
-                return false;
-            }
-        }
-        
-        return true; 
+        return state.isSolved() || state.isSolvedEmptyFirst();
     }
     /**
      * display that they won
@@ -0,0 +1,227 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Makes random solvable boards, every solvable board equally likely.
+ *
+ * Each board is a Fisher-Yates shuffle of the solved board that counts the
+ * swaps it makes as it goes. Every move of the empty cell swaps it with a
+ * neighbor, so a board can be solved exactly when the number of swaps and
+ * the empty cell's distance from the bottom right are both odd or both
+ * even. If they aren't, two Tiles away from the empty cell are swapped,
+ * which pairs every unsolvable board with exactly one solvable one, so the
+ * result stays uniform.
+ *
+ * 4x4 boards are shuffled straight into a packed long 4 bits at a time with
+ * no arrays at all. generate makes millions of them at once across every
+ * core, from a seed, and gives the same boards whatever the number of cores.
+ *
+ * A BoardGenerator uses one SplittableRandom and is not thread safe.
+ */
+public class BoardGenerator
+{
+    // Boards made from each SplittableRandom in generate
+    private static final int CHUNK = 1 << 14;
+
+    private final SplittableRandom random;
+
+    /**
+     * Create a BoardGenerator with a random seed
+     */
+    public BoardGenerator()
+    {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Create a BoardGenerator that makes the same boards every time for a seed
+     * @param seed the seed for the random numbers
+     */
+    public BoardGenerator(long seed)
+    {
+        this(new SplittableRandom(seed));
+    }
+
+    private BoardGenerator(SplittableRandom random)
+    {
+        this.random = random;
+    }
+
+    /**
+     * Make a random solvable 4x4 board
+     * @return a new board
+     */
+    public BoardState next()
+    {
+        return new BoardState(nextPacked());
+    }
+
+    /**
+     * Make a random solvable 4x4 board in the packed form of BoardState.packed
+     * @return the packed board
+     */
+    public long nextPacked()
+    {
+        long packed = BoardState.SOLVED;
+        int swaps = 0;
+        for (int i = BoardState.SIZE - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            if (j != i)
+            {
+                packed = swap(packed, i, j);
+                swaps++;
+            }
+        }
+
+        // The empty cell is the only 0 nibble
+        long zero = ~packed;
+        zero &= zero >>> 1;
+        zero &= zero >>> 2;
+        int empty = Long.numberOfTrailingZeros(zero & 0x1111111111111111L) >>> 2;
+
+        // Each step from the bottom right changes x + y by 1, and 3 + 3 is even
+        int distance = empty % BoardState.WIDTH + empty / BoardState.WIDTH;
+        if (((swaps ^ distance) & 1) != 0)
+        {
+            packed = empty > 1 ? swap(packed, 0, 1) : swap(packed, 2, 3);
+        }
+        return packed;
+    }
+
+    /**
+     * Make a random solvable board of any size
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @return a new board
+     * @throws IllegalArgumentException if width or height is less than 2
+     */
+    public GridState nextGrid(int width, int height)
+    {
+        if (width < 2 || height < 2)
+        {
+            throw new IllegalArgumentException("board must be at least 2x2");
+        }
+
+        int size = width * height;
+        int[] values = new int[size];
+        for (int i = 0; i < size - 1; i++)
+        {
+            values[i] = i + 1;
+        }
+        values[size - 1] = GridState.EMPTY;
+
+        int swaps = 0;
+        int empty = size - 1;
+        for (int i = size - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            if (j != i)
+            {
+                int t = values[i];
+                values[i] = values[j];
+                values[j] = t;
+                swaps++;
+                if (empty == i)
+                {
+                    empty = j;
+                }
+                else if (empty == j)
+                {
+                    empty = i;
+                }
+            }
+        }
+
+        int distance = (width - 1 - empty % width) + (height - 1 - empty / width);
+        if (((swaps ^ distance) & 1) != 0)
+        {
+            // Swapping 2 Tiles flips the parity
+            int a = empty > 1 ? 0 : 2;
+            int b = empty > 1 ? 1 : 3;
+            int t = values[a];
+            values[a] = values[b];
+            values[b] = t;
+        }
+        return GridState.fromValues(width, height, values);
+    }
+
+    /**
+     * Make many random solvable 4x4 boards in packed form, using every core.
+     * The boards only depend on the seed, not on how many cores there are.
+     * @param seed  the seed for the random numbers
+     * @param count the number of boards to make
+     * @return the packed boards
+     * @throws IllegalArgumentException if count is negative
+     */
+    public static long[] generate(long seed, int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("count must be non-negative");
+        }
+
+        // Split one generator per chunk up front, in order, so each chunk
+        // gets the same numbers whichever thread runs it
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++)
+        {
+            randoms[c] = root.split();
+        }
+
+        long[] boards = new long[count];
+        IntStream.range(0, chunks).parallel().forEach(c ->
+        {
+            BoardGenerator generator = new BoardGenerator(randoms[c]);
+            int end = Math.min(count, (c + 1) * CHUNK);
+            for (int i = c * CHUNK; i < end; i++)
+            {
+                boards[i] = generator.nextPacked();
+            }
+        });
+        return boards;
+    }
+
+    // Swap the values in cells i and j of a packed board
+    private static long swap(long packed, int i, int j)
+    {
+        int si = i << 2;
+        int sj = j << 2;
+        long diff = ((packed >>> si) ^ (packed >>> sj)) & 0xF;
+        return packed ^ (diff << si) ^ (diff << sj);
+    }
+
+    /**
+     * Time making boards one at a time and with generate
+     * Usage: java BoardGenerator [count] [seed]
+     * @param args the optional number of boards and seed
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        // Run each a few times so the later runs are compiled
+        for (int run = 0; run < 3; run++)
+        {
+            BoardGenerator generator = new BoardGenerator(seed);
+            long time = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < count; i++)
+            {
+                check += generator.nextPacked();
+            }
+            double single = (System.nanoTime() - time) / 1e9;
+
+            time = System.nanoTime();
+            long[] boards = generate(seed, count);
+            double bulk = (System.nanoTime() - time) / 1e9;
+
+            System.out.printf("%,d boards: one at a time %.2f M/s, generate %.2f M/s on %d cores (check %x, %x)%n",
+                    count, count / single / 1e6, count / bulk / 1e6, Runtime.getRuntime().availableProcessors(),
+                    check, boards[count - 1]);
+        }
+    }
+}
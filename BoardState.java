@@ -0,0 +1,400 @@
+public class BoardState
+{
+    // The board is always 4x4
+    public static final int WIDTH = 4;
+    public static final int HEIGHT = 4;
+    public static final int SIZE = WIDTH * HEIGHT;
+
+    // Directions the empty cell can move in
+    // The opposite direction is always dir ^ 1
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    // The value stored for the empty cell in the packed form
+    public static final int EMPTY = 0;
+
+    // The packed form of the solved board, 1-15 in order with the
+    // empty cell in the bottom right
+    public static final long SOLVED = 0x0FEDCBA987654321L;
+
+    // The packed form of the solved board with the empty cell
+    // in the top left, which the Board also accepts as a win
+    public static final long SOLVED_EMPTY_FIRST = 0xFEDCBA9876543210L;
+
+    // How far the empty cell's index changes for each direction
+    private static final int[] OFFSET = {-WIDTH, WIDTH, -1, 1};
+
+    // How far the empty cell's column and row change for each direction
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    // For each position, a bitmask of the directions the empty cell can move in
+    private static final int[] MOVES = new int[SIZE];
+
+    // A random looking key for every (value, position), indexed by value * SIZE + position
+    // The Zobrist hash of a board is the xor of the keys of its Tiles, so
+    // a move changes it by the keys of just the one Tile that slid
+    private static final long[] ZOBRIST = new long[SIZE * SIZE];
+
+    static
+    {
+        for (int pos = 0; pos < SIZE; pos++)
+        {
+            int x = pos % WIDTH;
+            int y = pos / WIDTH;
+            int mask = 0;
+            if (y > 0)          mask |= 1 << UP;
+            if (y < HEIGHT - 1) mask |= 1 << DOWN;
+            if (x > 0)          mask |= 1 << LEFT;
+            if (x < WIDTH - 1)  mask |= 1 << RIGHT;
+            MOVES[pos] = mask;
+        }
+
+        // The empty cell has no keys since its position follows from the Tiles
+        for (int i = SIZE; i < ZOBRIST.length; i++)
+        {
+            ZOBRIST[i] = hash(i);
+        }
+    }
+
+    // 4 bits per cell, cell 0 in the lowest 4 bits
+    private long tiles;
+
+    // The index of the empty cell
+    private int empty;
+
+    // The Zobrist hash of tiles, kept up to date by apply
+    private long zobrist;
+
+    /**
+     * Create a solved BoardState
+     */
+    public BoardState()
+    {
+        this(SOLVED);
+    }
+
+    /**
+     * Create a BoardState from its packed form
+     * @param tiles the packed form of the board, 4 bits per cell with
+     * cell 0 in the lowest bits and 0 for the empty cell
+     * @throws IllegalArgumentException if tiles isn't a permutation of 0-15
+     */
+    public BoardState(long tiles)
+    {
+        // Make sure every value shows up exactly once
+        int seen = 0;
+        int emptyPos = -1;
+        for (int pos = 0; pos < SIZE; pos++)
+        {
+            int v = (int) (tiles >>> (pos << 2)) & 0xF;
+            seen |= 1 << v;
+            if (v == EMPTY)
+            {
+                emptyPos = pos;
+            }
+        }
+        if (seen != 0xFFFF)
+        {
+            throw new IllegalArgumentException("tiles must contain each value from 0 to 15 exactly once");
+        }
+
+        this.tiles = tiles;
+        this.empty = emptyPos;
+        this.zobrist = zobrist(tiles);
+    }
+
+    // Used by copy() to skip validation
+    private BoardState(long tiles, int empty, long zobrist)
+    {
+        this.tiles = tiles;
+        this.empty = empty;
+        this.zobrist = zobrist;
+    }
+
+    /**
+     * Create a BoardState from a list of Tile values in row-major order
+     * @param values the 16 values on the board, where -1 or 0 is the empty cell
+     * @return a new BoardState with the given values
+     * @throws IllegalArgumentException if values isn't a permutation of the board
+     */
+    public static BoardState fromValues(int[] values)
+    {
+        if (values.length != SIZE)
+        {
+            throw new IllegalArgumentException("values must have exactly 16 entries");
+        }
+
+        long packed = 0;
+        for (int pos = 0; pos < SIZE; pos++)
+        {
+            int v = values[pos] == -1 ? EMPTY : values[pos];
+            if (v < 0 || v >= SIZE)
+            {
+                throw new IllegalArgumentException("values must be between -1 and 15");
+            }
+            packed |= (long) v << (pos << 2);
+        }
+        return new BoardState(packed);
+    }
+
+    /**
+     * Get a copy of this BoardState that can be changed independently
+     * @return a new BoardState with the same tiles
+     */
+    public BoardState copy()
+    {
+        return new BoardState(tiles, empty, zobrist);
+    }
+
+    /**
+     * Get the packed form of this board
+     * @return 4 bits per cell, with cell 0 in the lowest bits
+     */
+    public long packed()
+    {
+        return tiles;
+    }
+
+    /**
+     * Get the index of the empty cell
+     * @return the row-major index of the empty cell
+     */
+    public int emptyPos()
+    {
+        return empty;
+    }
+
+    /**
+     * Get the value at a row-major index
+     * @param pos the index of the cell
+     * @return the value of the cell, 0 for the empty cell
+     */
+    public int get(int pos)
+    {
+        return (int) (tiles >>> (pos << 2)) & 0xF;
+    }
+
+    /**
+     * Get the value at (x, y)
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the value of the cell, 0 for the empty cell
+     */
+    public int get(int x, int y)
+    {
+        return get(y * WIDTH + x);
+    }
+
+    /**
+     * Get the directions the empty cell can move in
+     * @return a bitmask with bit dir set for every legal direction
+     */
+    public int moves()
+    {
+        return MOVES[empty];
+    }
+
+    /**
+     * Check if the empty cell can move in a direction
+     * @param dir the direction to check
+     * @return true if the move stays on the board, false otherwise
+     */
+    public boolean canMove(int dir)
+    {
+        return (MOVES[empty] & (1 << dir)) != 0;
+    }
+
+    /**
+     * Move the empty cell in a direction, sliding the Tile there into
+     * the empty cell's old position. The move must be legal.
+     * @param dir the direction to move the empty cell
+     * @return the value of the Tile that was moved
+     */
+    public int apply(int dir)
+    {
+        int target = empty + OFFSET[dir];
+        int shift = target << 2;
+        long tile = (tiles >>> shift) & 0xF;
+
+        // The empty cell is stored as 0, so its bits can just be or-ed in
+        tiles = (tiles & ~(0xFL << shift)) | (tile << (empty << 2));
+        zobrist ^= ZOBRIST[(int) tile * SIZE + target] ^ ZOBRIST[(int) tile * SIZE + empty];
+        empty = target;
+
+        return (int) tile;
+    }
+
+    /**
+     * Undo a move made by apply(dir)
+     * @param dir the direction that was passed to apply
+     */
+    public void undo(int dir)
+    {
+        apply(dir ^ 1);
+    }
+
+    /**
+     * Get how far a move takes the empty cell across, on a board of any size
+     * @param dir the direction of the move
+     * @return -1 for LEFT, 1 for RIGHT and 0 otherwise
+     */
+    public static int dx(int dir)
+    {
+        return DX[dir];
+    }
+
+    /**
+     * Get how far a move takes the empty cell down, on a board of any size
+     * @param dir the direction of the move
+     * @return -1 for UP, 1 for DOWN and 0 otherwise
+     */
+    public static int dy(int dir)
+    {
+        return DY[dir];
+    }
+
+    /**
+     * Get the direction the empty cell moves in to go between two
+     * neighboring cells
+     * @param from the index the empty cell starts at
+     * @param to   the index the empty cell ends at
+     * @return the direction of the move
+     * @throws IllegalArgumentException if the cells aren't neighbors
+     */
+    public static int direction(int from, int to)
+    {
+        int d = to - from;
+        if (d == -WIDTH) return UP;
+        if (d == WIDTH) return DOWN;
+        if (d == -1 && from % WIDTH != 0) return LEFT;
+        if (d == 1 && to % WIDTH != 0) return RIGHT;
+        throw new IllegalArgumentException("cells must be next to each other");
+    }
+
+    /**
+     * Checks if 1-15 are in order with the empty cell in the bottom right
+     * @return true if the board is solved, false otherwise
+     */
+    public boolean isSolved()
+    {
+        return tiles == SOLVED;
+    }
+
+    /**
+     * Checks if 1-15 are in order with the empty cell in the top left
+     * @return true if the board is solved that way, false otherwise
+     */
+    public boolean isSolvedEmptyFirst()
+    {
+        return tiles == SOLVED_EMPTY_FIRST;
+    }
+
+    /**
+     * Checks if the board can be slid back into the solved board
+     * @return true if the board is solvable, false otherwise
+     */
+    public boolean isSolvable()
+    {
+        // Count inversions, treating the empty cell as the biggest value
+        int inversions = 0;
+        for (int i = 0; i < SIZE; i++)
+        {
+            int a = get(i) == EMPTY ? SIZE : get(i);
+            for (int j = i + 1; j < SIZE; j++)
+            {
+                int b = get(j) == EMPTY ? SIZE : get(j);
+                if (a > b)
+                {
+                    inversions++;
+                }
+            }
+        }
+
+        // Every move swaps the empty cell with a neighbor, which flips the
+        // parity of the permutation and of the empty cell's distance to its goal
+        int distance = (WIDTH - 1 - empty % WIDTH) + (HEIGHT - 1 - empty / WIDTH);
+        return (inversions & 1) == (distance & 1);
+    }
+
+    /**
+     * Get a well mixed 64 bit hash of the board
+     * @return the hash of the packed board
+     */
+    public long hash()
+    {
+        return hash(tiles);
+    }
+
+    /**
+     * Get the Zobrist hash of the board, which is updated with every move
+     * instead of being recomputed from the packed board
+     * @return the Zobrist hash of the board
+     */
+    public long zobrist()
+    {
+        return zobrist;
+    }
+
+    /**
+     * Compute the Zobrist hash of a packed board from scratch
+     * @param tiles the packed board
+     * @return the same hash zobrist() gives for that board
+     */
+    public static long zobrist(long tiles)
+    {
+        long h = 0;
+        for (int pos = 0; pos < SIZE; pos++)
+        {
+            int v = (int) (tiles >>> (pos << 2)) & 0xF;
+            h ^= ZOBRIST[v * SIZE + pos];
+        }
+        return h;
+    }
+
+    /**
+     * Get a well mixed 64 bit hash of a packed board
+     * @param tiles the packed board
+     * @return the hash of the packed board
+     */
+    public static long hash(long tiles)
+    {
+        // Finalizer from MurmurHash3
+        long h = tiles;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(hash());
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof BoardState other && other.tiles == tiles;
+    }
+
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int pos = 0; pos < SIZE; pos++)
+        {
+            int v = get(pos);
+            sb.append(v == EMPTY ? -1 : v);
+            if (pos < SIZE - 1)
+            {
+                sb.append(", ");
+            }
+        }
+        return sb.append("]").toString();
+    }
+}
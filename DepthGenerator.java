@@ -0,0 +1,408 @@
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Makes random 4x4 boards whose shortest solution is exactly a given
+ * number of moves, for picking a difficulty or benchmarking one.
+ *
+ * Every board along a shortest solution is itself exactly as far from
+ * solved as the moves left, so each optimal solve gives one board for every
+ * depth from its length down to 0. Boards are scrambled with a random walk
+ * and solved with AutoSolver, and the boards along the solution go into a
+ * pool for each depth that has been asked for. The walk length for each
+ * depth is tuned as it goes so the solutions come out just past that
+ * depth, since solving a deeper board than needed costs far more. Walks
+ * longer than 120 moves barely get any deeper, so past that uniformly
+ * random boards are solved instead.
+ *
+ * Pools are filled by background threads, one per core by default, each
+ * with its own AutoSolver. next takes a board straight from the pool if
+ * there is one and waits for the threads otherwise, which work on depths
+ * someone is waiting for first. warm fills pools ahead of time so later
+ * requests are served instantly. If a thread fails, for example because
+ * the heuristic can't be loaded, next and warm throw an
+ * IllegalStateException caused by the failure instead of waiting forever.
+ *
+ * Depths only go up to MAX_DEPTH. Some 4x4 boards are 80 moves from
+ * solved, but only about 1 random board in 10 is 60 or more and 1 in 50 is
+ * 64 or more, so deeper pools would take minutes to fill and the deepest
+ * might never fill at all.
+ */
+public class DepthGenerator implements AutoCloseable
+{
+    // The deepest boards made. About 1 random board in 10 is this far from
+    // solved, so a board for it takes about 10 solves.
+    public static final int MAX_DEPTH = 60;
+
+    // Boards kept for each depth
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    // Walks longer than this barely get any deeper, so a random board is used instead
+    private static final int MAX_WALK = 120;
+
+    private final Supplier<Heuristic> heuristic;
+    private final int poolSize;
+    private final long seed;
+    private final int threads;
+
+    // Boards for each depth, packed, used as a stack
+    // Every field below is guarded by this
+    private final long[][] pools;
+    private final int[] counts;
+
+    // Depths to keep full, which are the ones asked for so far
+    private final boolean[] active = new boolean[MAX_DEPTH + 1];
+
+    // Number of callers of next waiting on each depth
+    private final int[] waiting = new int[MAX_DEPTH + 1];
+
+    private Thread[] workers;
+    private boolean closed;
+
+    // What stopped a worker, if one failed
+    private RuntimeException failure;
+
+    /**
+     * Create a DepthGenerator with a random seed, DEFAULT_POOL_SIZE boards per
+     * depth and one background thread per core
+     * @param heuristic gives the heuristic for IDA*, called once on each background thread
+     */
+    public DepthGenerator(Supplier<Heuristic> heuristic)
+    {
+        this(heuristic, new SplittableRandom().nextLong(), DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Create a DepthGenerator with one background thread per core
+     * @param heuristic gives the heuristic for IDA*, called once on each background thread
+     * @param seed      the seed for the random numbers
+     * @param poolSize  how many boards to keep for each depth
+     * @throws IllegalArgumentException if poolSize isn't positive
+     */
+    public DepthGenerator(Supplier<Heuristic> heuristic, long seed, int poolSize)
+    {
+        this(heuristic, seed, poolSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a DepthGenerator
+     * @param heuristic gives the heuristic for IDA*, called once on each background thread
+     * @param seed      the seed for the random numbers
+     * @param poolSize  how many boards to keep for each depth
+     * @param threads   how many boards to solve at once
+     * @throws IllegalArgumentException if poolSize or threads isn't positive
+     */
+    public DepthGenerator(Supplier<Heuristic> heuristic, long seed, int poolSize, int threads)
+    {
+        if (poolSize < 1)
+        {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.heuristic = heuristic;
+        this.seed = seed;
+        this.poolSize = poolSize;
+        this.threads = threads;
+        this.pools = new long[MAX_DEPTH + 1][poolSize];
+        this.counts = new int[MAX_DEPTH + 1];
+    }
+
+    /**
+     * Get a random board whose shortest solution is exactly depth moves,
+     * waiting for one to be made if the pool for that depth is empty
+     * @param depth the number of moves
+     * @return a new board
+     * @throws IllegalArgumentException if depth isn't between 0 and MAX_DEPTH
+     * @throws IllegalStateException if this generator is closed or a
+     * background thread failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized BoardState next(int depth) throws InterruptedException
+    {
+        checkDepth(depth);
+        activate(depth);
+        waiting[depth]++;
+        try
+        {
+            while (counts[depth] == 0)
+            {
+                checkOpen();
+                wait();
+            }
+        }
+        finally
+        {
+            waiting[depth]--;
+        }
+
+        long packed = pools[depth][--counts[depth]];
+
+        // Let the workers know there's room again
+        notifyAll();
+        return new BoardState(packed);
+    }
+
+    /**
+     * Start filling the pools for a range of depths in the background
+     * @param minDepth the smallest depth to fill
+     * @param maxDepth the largest depth to fill
+     * @throws IllegalArgumentException if the depths aren't between 0 and MAX_DEPTH
+     * @throws IllegalStateException if this generator is closed or a
+     * background thread failed
+     */
+    public synchronized void warm(int minDepth, int maxDepth)
+    {
+        checkDepth(minDepth);
+        checkDepth(maxDepth);
+        for (int depth = minDepth; depth <= maxDepth; depth++)
+        {
+            activate(depth);
+        }
+    }
+
+    /**
+     * Get the number of boards ready for a depth
+     * @param depth the number of moves
+     * @return how many boards next can return without waiting
+     * @throws IllegalArgumentException if depth isn't between 0 and MAX_DEPTH
+     */
+    public synchronized int available(int depth)
+    {
+        checkDepth(depth);
+        return counts[depth];
+    }
+
+    /**
+     * Stop the background threads. Callers waiting in next get an IllegalStateException.
+     */
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        if (workers != null)
+        {
+            for (Thread worker : workers)
+            {
+                worker.interrupt();
+            }
+        }
+        notifyAll();
+    }
+
+    private static void checkDepth(int depth)
+    {
+        if (depth < 0 || depth > MAX_DEPTH)
+        {
+            throw new IllegalArgumentException("depth must be between 0 and " + MAX_DEPTH);
+        }
+    }
+
+    // Throw if no more boards are coming
+    private void checkOpen()
+    {
+        if (failure != null)
+        {
+            throw new IllegalStateException("generator failed", failure);
+        }
+        if (closed)
+        {
+            throw new IllegalStateException("generator is closed");
+        }
+    }
+
+    // Mark a depth to be kept full, starting the workers the first time
+    private void activate(int depth)
+    {
+        checkOpen();
+        active[depth] = true;
+        if (workers == null)
+        {
+            SplittableRandom seeds = new SplittableRandom(seed);
+            workers = new Thread[threads];
+            for (int i = 0; i < threads; i++)
+            {
+                SplittableRandom random = seeds.split();
+                workers[i] = new Thread(() -> fill(random), "depth-generator-" + i);
+                workers[i].setDaemon(true);
+                workers[i].start();
+            }
+        }
+        notifyAll();
+    }
+
+    // The depth to aim the next solve at: one someone is waiting for, or
+    // else the emptiest pool. Waits while every pool asked for is full, and
+    // gives -1 once closed or another worker failed.
+    private synchronized int pick() throws InterruptedException
+    {
+        while (!closed && failure == null)
+        {
+            int best = -1;
+            for (int depth = 0; depth <= MAX_DEPTH; depth++)
+            {
+                if (!active[depth] || counts[depth] == poolSize)
+                {
+                    continue;
+                }
+                if (best == -1 || (waiting[depth] > 0 && waiting[best] == 0)
+                        || ((waiting[depth] > 0) == (waiting[best] > 0) && counts[depth] < counts[best]))
+                {
+                    best = depth;
+                }
+            }
+            if (best >= 0)
+            {
+                return best;
+            }
+            wait();
+        }
+        return -1;
+    }
+
+    // Put every board along a solution into the pool for its depth
+    private synchronized void store(BoardState start, byte[] moves)
+    {
+        BoardState state = start.copy();
+        for (int i = 0; i <= moves.length; i++)
+        {
+            int depth = moves.length - i;
+            if (depth <= MAX_DEPTH && active[depth] && counts[depth] < poolSize)
+            {
+                pools[depth][counts[depth]++] = state.packed();
+            }
+            if (i < moves.length)
+            {
+                state.apply(moves[i]);
+            }
+        }
+        notifyAll();
+    }
+
+    // A background thread: scramble and solve boards until closed
+    private void fill(SplittableRandom random)
+    {
+        BoardGenerator generator = new BoardGenerator(random.nextLong());
+        AutoSolver solver = new AutoSolver(heuristic);
+
+        // Random walk length for each depth, tuned by how deep the solutions come out
+        int[] walk = new int[MAX_DEPTH + 1];
+        for (int depth = 0; depth <= MAX_DEPTH; depth++)
+        {
+            walk[depth] = depth + 2;
+        }
+
+        try
+        {
+            while (true)
+            {
+                int depth = pick();
+                if (depth < 0)
+                {
+                    return;
+                }
+
+                BoardState start = walk[depth] > MAX_WALK ? generator.next() : walk(random, walk[depth]);
+                byte[] moves = solver.solve(start).moves();
+                store(start, moves);
+
+                // Aim for solutions a little past the depth: longer walks if
+                // they came out short, shorter ones if they went well past
+                if (moves.length < depth)
+                {
+                    walk[depth] += Math.max(2, walk[depth] / 8);
+                }
+                else if (moves.length > depth + 4 && walk[depth] <= MAX_WALK)
+                {
+                    walk[depth] = Math.max(depth, walk[depth] - 1);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            // Closed
+        }
+        catch (RuntimeException ex)
+        {
+            // Wake everyone waiting so they see the failure
+            synchronized (this)
+            {
+                if (failure == null)
+                {
+                    failure = ex;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    // Scramble the solved board with random moves that never undo the last one
+    static BoardState walk(SplittableRandom random, int length)
+    {
+        BoardState state = new BoardState();
+        int prev = -1;
+        for (int m = 0; m < length; m++)
+        {
+            int dir;
+            do
+            {
+                dir = random.nextInt(4);
+            } while (!state.canMove(dir) || dir == (prev ^ 1));
+            state.apply(dir);
+            prev = dir;
+        }
+        return state;
+    }
+
+    /**
+     * Fill the pools for a range of depths, then check that a board from
+     * each has exactly that shortest solution
+     * Usage: java DepthGenerator [minDepth] [maxDepth] [poolSize] [seed]
+     * @param args the optional depths, pool size and seed
+     * @throws InterruptedException if interrupted while waiting for a board
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int minDepth = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_POOL_SIZE;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        try (DepthGenerator generator = new DepthGenerator(PatternDatabaseHeuristic::defaultHeuristic, seed, poolSize))
+        {
+            // Fill every pool and time it
+            long time = System.nanoTime();
+            generator.warm(minDepth, maxDepth);
+            for (int depth = minDepth; depth <= maxDepth; depth++)
+            {
+                while (generator.available(depth) < poolSize)
+                {
+                    Thread.sleep(10);
+                }
+            }
+            System.out.printf("Filled %d pools of %d in %.1f s%n",
+                    maxDepth - minDepth + 1, poolSize, (System.nanoTime() - time) / 1e9);
+
+            // Serve one board per depth from the full pools and check it
+            IDASolver check = new IDASolver(PatternDatabaseHeuristic.defaultHeuristic());
+            long served = 0;
+            for (int depth = minDepth; depth <= maxDepth; depth++)
+            {
+                time = System.nanoTime();
+                BoardState board = generator.next(depth);
+                served += System.nanoTime() - time;
+
+                int length = check.solve(board).moves().length;
+                if (length != depth)
+                {
+                    System.out.printf("Depth %d gave a board %d moves from solved%n", depth, length);
+                    System.exit(1);
+                }
+            }
+            System.out.printf("Served from the pools in %.1f us on average, every board checked%n",
+                    served / 1e3 / (maxDepth - minDepth + 1));
+        }
+    }
+}
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The exact distance to solved of every board of a small size, like 3x4
+ * or 2x5, as written by ExternalBFS. Each board takes 4 bits holding its
+ * distance mod 15, so all 239,500,800 3x4 boards fit in 120 MB.
+ *
+ * That is enough to solve optimally: every move changes the distance by
+ * exactly 1, so the neighbor whose stored value is one less (mod 15) is
+ * always one move closer, and each move of the solution is one lookup.
+ *
+ * Boards are indexed by the cells of the empty cell and then of Tiles
+ * 1, 2, ..., ranked as a permutation. Only half of all permutations can be
+ * reached, and a board and the one with its last two Tiles swapped differ
+ * only in the lowest bit of the rank, so the rank is halved to index just
+ * the reachable boards.
+ */
+public class DistanceTable
+{
+    // Marks the start of a distance table file, "DST1"
+    static final int MAGIC = 0x44535431;
+
+    // Magic number, width and height
+    static final int HEADER = 12;
+
+    // The value stored for a board that wasn't reached
+    static final int UNSEEN = 0xF;
+
+    // Distances are stored mod this, leaving UNSEEN free
+    static final int MOD = 15;
+
+    // The largest board that can be indexed, 12! fits easily in a long
+    static final int MAX_CELLS = 12;
+
+    private final int width;
+    private final int height;
+    private final ByteBuffer table;
+
+    private DistanceTable(int width, int height, ByteBuffer table)
+    {
+        this.width = width;
+        this.height = height;
+        this.table = table;
+    }
+
+    /**
+     * Open a distance table file by mapping it into memory
+     * @param file the file to open
+     * @return the distance table stored in the file
+     * @throws IOException if the file can't be read or isn't a complete distance table
+     */
+    public static DistanceTable open(Path file) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.BIG_ENDIAN);
+            if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException(file + " is not a distance table");
+            }
+
+            int width = buffer.getInt(4);
+            int height = buffer.getInt(8);
+            if (width < 2 || height < 2 || width * height > MAX_CELLS)
+            {
+                throw new IOException(file + " has an invalid board size");
+            }
+            if (buffer.capacity() != bytes(width * height))
+            {
+                throw new IOException(file + " is truncated");
+            }
+            return new DistanceTable(width, height, buffer);
+        }
+    }
+
+    /**
+     * Get the number of columns of the boards in this table
+     * @return the width of the boards
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Get the number of rows of the boards in this table
+     * @return the height of the boards
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Get the distance to solved of a board, mod 15
+     * @param state the board to look up, which must be the table's size
+     * @return the number of moves to solve state mod 15, or -1 if it can't be solved
+     * @throws IllegalArgumentException if state isn't the table's size
+     */
+    public int distanceMod(GridState state)
+    {
+        checkSize(state);
+
+        // The index of a board that can't be solved is the same as the one
+        // with its last two Tiles swapped, which can
+        if (!state.isSolvable())
+        {
+            return -1;
+        }
+        int d = get(table, index(positions(state)));
+        return d == UNSEEN ? -1 : d;
+    }
+
+    /**
+     * Find a shortest solution by always moving to a neighbor one move closer
+     * @param start the board to solve, which is not changed
+     * @return the moves of a shortest solution
+     * @throws IllegalArgumentException if start isn't the table's size or can't be solved
+     */
+    public byte[] solve(GridState start)
+    {
+        int d = distanceMod(start);
+        if (d < 0)
+        {
+            throw new IllegalArgumentException("board is not solvable");
+        }
+
+        GridState state = start.copy();
+        MoveBuffer moves = new MoveBuffer();
+        int[] positions = positions(state);
+        while (!state.isSolved())
+        {
+            int closer = (d + MOD - 1) % MOD;
+            int blank = positions[0];
+            int dir = 0;
+            for (; dir < 4; dir++)
+            {
+                if (!state.canMove(dir))
+                {
+                    continue;
+                }
+
+                // Slide the Tile next to the empty cell and look the board up
+                int target = blank + state.offset(dir);
+                int tile = state.get(target);
+                positions[0] = target;
+                positions[tile] = blank;
+                if (get(table, index(positions)) == closer)
+                {
+                    break;
+                }
+                positions[0] = blank;
+                positions[tile] = target;
+            }
+            if (dir == 4)
+            {
+                throw new IllegalStateException("distance table is corrupt");
+            }
+
+            state.apply(dir);
+            moves.add(dir);
+            d = closer;
+        }
+        return moves.toArray();
+    }
+
+    // Make sure a board matches the table
+    private void checkSize(GridState state)
+    {
+        if (state.width() != width || state.height() != height)
+        {
+            throw new IllegalArgumentException("this table is for " + width + "x" + height + " boards");
+        }
+    }
+
+    // The cell of the empty cell, then of Tiles 1, 2, ...
+    private static int[] positions(GridState state)
+    {
+        int[] positions = new int[state.size()];
+        for (int pos = 0; pos < positions.length; pos++)
+        {
+            positions[state.get(pos)] = pos;
+        }
+        return positions;
+    }
+
+    /**
+     * Get the number of boards of a size that can be solved, n! / 2
+     * @param cells the number of cells on the board
+     * @return the number of entries a table for that size needs
+     */
+    static long states(int cells)
+    {
+        return Permutation.arrangements(cells, cells) / 2;
+    }
+
+    /**
+     * Get the size of a distance table file, header included
+     * @param cells the number of cells on the board
+     * @return the size in bytes
+     */
+    static long bytes(int cells)
+    {
+        return HEADER + (states(cells) + 1) / 2;
+    }
+
+    /**
+     * Read the 4 bit entry for an index from a table buffer
+     * @param table the buffer holding the whole file
+     * @param index the index of the board
+     * @return the stored distance mod 15, or UNSEEN
+     */
+    static int get(ByteBuffer table, long index)
+    {
+        int b = table.get((int) (HEADER + (index >>> 1)));
+        return (b >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    /**
+     * Write the 4 bit entry for an index into a table buffer
+     * @param table the buffer holding the whole file
+     * @param index the index of the board
+     * @param value the distance mod 15
+     */
+    static void set(ByteBuffer table, long index, int value)
+    {
+        int at = (int) (HEADER + (index >>> 1));
+        int shift = (int) (index & 1) << 2;
+        int b = table.get(at) & ~(0xF << shift);
+        table.put(at, (byte) (b | (value << shift)));
+    }
+
+    /**
+     * Get the index of a board from the cells of the empty cell and every Tile
+     * @param positions the cell of the empty cell, then of Tiles 1, 2, ...
+     * @return the index of the board, below states(positions.length)
+     */
+    static long index(int[] positions)
+    {
+        // The second last digit of the rank is the lowest bit, and only one value of it can be reached
+        return Permutation.rank(positions) >>> 1;
+    }
+
+    /**
+     * Reverse of index
+     * @param index     the index of the board
+     * @param width     the number of columns
+     * @param positions where to put the cell of the empty cell, then of Tiles 1, 2, ...
+     */
+    static void positions(long index, int width, int[] positions)
+    {
+        int n = positions.length;
+        int height = n / width;
+        Permutation.unrank(index << 1, positions);
+
+        // Swapping the last two flips the lowest bit of the rank, so do that
+        // if the board can't be reached: the parity of the positions, plus the
+        // odd or even n - 1 of the solved board, has to match the parity of
+        // the empty cell's distance from the bottom right
+        int blank = positions[0];
+        int distance = (width - 1 - blank % width) + (height - 1 - blank / width);
+        if (((Permutation.parity(positions) + n - 1 + distance) & 1) != 0)
+        {
+            int t = positions[n - 2];
+            positions[n - 2] = positions[n - 1];
+            positions[n - 1] = t;
+        }
+    }
+}
@@ -0,0 +1,574 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the distance to solved of every board of a small size, like 3x4 or
+ * 2x5, with a breadth first search that keeps its layers on disk, and
+ * writes them to a DistanceTable file.
+ *
+ * 3x4 has 239,500,800 boards, far too many to keep in a hash set, so each
+ * layer is a file of sorted board indexes instead. The boards one move from
+ * a layer are collected in a fixed size buffer, and every time it fills it
+ * is sorted, has its repeats dropped and is written out as a run. The runs
+ * are then merged, which finds the repeats between runs, and the layer
+ * before is merged in too to drop boards already seen. Every move changes
+ * the distance by exactly 1, so a board one move from layer d is in layer
+ * d - 1 or d + 1, and the layer before is the only one that needs checking.
+ *
+ * Only the current layer, the one before and the runs are on disk at once.
+ * After each layer the table is flushed and a checkpoint file records the
+ * depth reached, so a search that was stopped carries on from the last
+ * finished layer when run again with the same directory.
+ */
+public class ExternalBFS
+{
+    // Longs to collect before sorting and writing a run, 128 MB
+    public static final int DEFAULT_RUN_LONGS = 1 << 24;
+
+    // Bytes to read or write at a time for each file
+    private static final int IO_BYTES = 1 << 16;
+
+    private final int width;
+    private final int height;
+    private final int cells;
+    private final Path directory;
+    private final int runLongs;
+
+    // The distance table being filled in
+    private MappedByteBuffer table;
+
+    // Boards one move from the layer being expanded, not yet sorted
+    private long[] buffer;
+
+    /**
+     * Create an ExternalBFS that collects DEFAULT_RUN_LONGS boards per run
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param directory where to keep the layers, runs, checkpoint and table
+     * @throws IllegalArgumentException if the board is too small or too big to index
+     */
+    public ExternalBFS(int width, int height, Path directory)
+    {
+        this(width, height, directory, DEFAULT_RUN_LONGS);
+    }
+
+    /**
+     * Create an ExternalBFS
+     * @param width     the number of columns
+     * @param height    the number of rows
+     * @param directory where to keep the layers, runs, checkpoint and table
+     * @param runLongs  how many boards to collect before sorting and writing a run
+     * @throws IllegalArgumentException if the board is too small or too big to
+     * index, or runLongs isn't positive
+     */
+    public ExternalBFS(int width, int height, Path directory, int runLongs)
+    {
+        if (width < 2 || height < 2 || width * height > DistanceTable.MAX_CELLS)
+        {
+            throw new IllegalArgumentException("board must be at least 2x2 with at most "
+                    + DistanceTable.MAX_CELLS + " cells");
+        }
+        if (runLongs < 1)
+        {
+            throw new IllegalArgumentException("runLongs must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = width * height;
+        this.directory = directory;
+        this.runLongs = runLongs;
+    }
+
+    /**
+     * Get the file the distance table is written to
+     * @return a path like distances-3x4.bin inside the directory
+     */
+    public Path tableFile()
+    {
+        return directory.resolve("distances-" + width + "x" + height + ".bin");
+    }
+
+    /**
+     * Search every layer, starting again from the last checkpoint if there is one
+     * @param log prints a line for each layer, or null to print nothing
+     * @return the number of moves from solved of the farthest boards
+     * @throws IOException if a file can't be read or written, or the
+     * checkpoint is for a different board size
+     */
+    public int run(PrintStream log) throws IOException
+    {
+        Files.createDirectories(directory);
+        Path checkpoint = directory.resolve("checkpoint");
+
+        int depth;
+        long total;
+        if (Files.exists(checkpoint))
+        {
+            String[] fields = Files.readString(checkpoint).trim().split(" ");
+            if (Integer.parseInt(fields[0]) != width || Integer.parseInt(fields[1]) != height)
+            {
+                throw new IOException(checkpoint + " is for a different board size");
+            }
+            depth = Integer.parseInt(fields[2]);
+            total = Long.parseLong(fields[3]);
+            table = map(tableFile());
+            if (fields.length > 4)
+            {
+                // Already finished, the last layer was empty, but a crash
+                // could have left the layers before it behind
+                for (int d = depth - 2; d <= depth; d++)
+                {
+                    Files.deleteIfExists(layer(d));
+                }
+                return depth - 1;
+            }
+            if (log != null)
+            {
+                log.printf("resuming at depth %d with %,d boards%n", depth, total);
+            }
+        }
+        else
+        {
+            createTable();
+            long goal = DistanceTable.index(goalPositions());
+            DistanceTable.set(table, goal, 0);
+            try (LongWriter out = new LongWriter(layer(0)))
+            {
+                out.write(goal);
+            }
+            table.force();
+            depth = 0;
+            total = 1;
+            writeCheckpoint(checkpoint, depth, total, false);
+        }
+
+        buffer = new long[runLongs];
+        long start = System.nanoTime();
+        while (true)
+        {
+            // Anything past the checkpoint is from a layer that didn't finish,
+            // and a crash just after the checkpoint can leave the layer two
+            // back, which nothing needs any more
+            deleteRuns();
+            Files.deleteIfExists(layer(depth + 1));
+            Files.deleteIfExists(layer(depth - 2));
+
+            int runs = expand(layer(depth));
+            long count = merge(runs, depth);
+            total += count;
+
+            table.force();
+            boolean done = count == 0;
+            writeCheckpoint(checkpoint, depth + 1, total, done);
+            deleteRuns();
+            Files.deleteIfExists(layer(depth - 1));
+
+            if (log != null)
+            {
+                log.printf("depth %2d: %,14d boards %,14d total %8.1f s%n",
+                        depth + 1, count, total, (System.nanoTime() - start) / 1e9);
+            }
+            if (done)
+            {
+                Files.deleteIfExists(layer(depth));
+                Files.deleteIfExists(layer(depth + 1));
+                buffer = null;
+                return depth;
+            }
+            depth++;
+        }
+    }
+
+    // Write every board one move from a layer into sorted runs
+    // Returns the number of runs written
+    private int expand(Path layer) throws IOException
+    {
+        int[] positions = new int[cells];
+        int[] items = new int[cells];
+        int size = 0;
+        int runs = 0;
+
+        try (LongReader in = new LongReader(layer))
+        {
+            while (in.hasNext())
+            {
+                DistanceTable.positions(in.next(), width, positions);
+                for (int i = 0; i < cells; i++)
+                {
+                    items[positions[i]] = i;
+                }
+
+                int blank = positions[0];
+                int x = blank % width;
+                int y = blank / width;
+                for (int dir = 0; dir < 4; dir++)
+                {
+                    int target;
+                    switch (dir)
+                    {
+                        case BoardState.UP -> target = y > 0 ? blank - width : -1;
+                        case BoardState.DOWN -> target = y < height - 1 ? blank + width : -1;
+                        case BoardState.LEFT -> target = x > 0 ? blank - 1 : -1;
+                        default -> target = x < width - 1 ? blank + 1 : -1;
+                    }
+                    if (target < 0)
+                    {
+                        continue;
+                    }
+
+                    // Slide the Tile at target into the empty cell
+                    int tile = items[target];
+                    positions[0] = target;
+                    positions[tile] = blank;
+                    if (size == buffer.length)
+                    {
+                        writeRun(runs++, size);
+                        size = 0;
+                    }
+                    buffer[size++] = DistanceTable.index(positions);
+                    positions[0] = blank;
+                    positions[tile] = target;
+                }
+            }
+        }
+
+        if (size > 0)
+        {
+            writeRun(runs++, size);
+        }
+        return runs;
+    }
+
+    // Sort the first size boards of the buffer and write them without repeats
+    private void writeRun(int run, int size) throws IOException
+    {
+        Arrays.parallelSort(buffer, 0, size);
+        try (LongWriter out = new LongWriter(run(run)))
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (i == 0 || buffer[i] != buffer[i - 1])
+                {
+                    out.write(buffer[i]);
+                }
+            }
+        }
+    }
+
+    // Merge the runs into the next layer, leaving out repeats and boards in
+    // the layer before, and record the distance of each new board
+    // Returns the number of boards in the next layer
+    private long merge(int runs, int depth) throws IOException
+    {
+        PriorityQueue<LongReader> queue = new PriorityQueue<>(Math.max(1, runs),
+                (a, b) -> Long.compare(a.peek(), b.peek()));
+        LongReader previous = null;
+        int value = (depth + 1) % DistanceTable.MOD;
+        long count = 0;
+        try (LongWriter out = new LongWriter(temp(layer(depth + 1))))
+        {
+            for (int i = 0; i < runs; i++)
+            {
+                LongReader in = new LongReader(run(i));
+                if (in.hasNext())
+                {
+                    queue.add(in);
+                }
+                else
+                {
+                    in.close();
+                }
+            }
+            if (depth > 0)
+            {
+                previous = new LongReader(layer(depth - 1));
+            }
+
+            long last = -1;
+            while (!queue.isEmpty())
+            {
+                LongReader in = queue.poll();
+                long index = in.next();
+                if (in.hasNext())
+                {
+                    queue.add(in);
+                }
+                else
+                {
+                    in.close();
+                }
+
+                if (index == last)
+                {
+                    continue;
+                }
+                last = index;
+
+                // Both are sorted, so the layer before only ever moves forward
+                while (previous != null && previous.hasNext() && previous.peek() < index)
+                {
+                    previous.next();
+                }
+                if (previous != null && previous.hasNext() && previous.peek() == index)
+                {
+                    continue;
+                }
+
+                out.write(index);
+                DistanceTable.set(table, index, value);
+                count++;
+            }
+        }
+        finally
+        {
+            for (LongReader in : queue)
+            {
+                in.close();
+            }
+            if (previous != null)
+            {
+                previous.close();
+            }
+        }
+
+        Files.move(temp(layer(depth + 1)), layer(depth + 1),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    // The cell of the empty cell, then of Tiles 1, 2, ... on the solved board
+    private int[] goalPositions()
+    {
+        int[] positions = new int[cells];
+        positions[0] = cells - 1;
+        for (int tile = 1; tile < cells; tile++)
+        {
+            positions[tile] = tile - 1;
+        }
+        return positions;
+    }
+
+    // Create the table file with every board unseen, and map it
+    private void createTable() throws IOException
+    {
+        Path file = tableFile();
+        long bytes = DistanceTable.bytes(cells);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(0, DistanceTable.MAGIC);
+            buffer.putInt(4, width);
+            buffer.putInt(8, height);
+            for (int i = DistanceTable.HEADER; i < bytes; i++)
+            {
+                buffer.put(i, (byte) 0xFF);
+            }
+            table = buffer;
+        }
+    }
+
+    // Map an existing table file to carry on filling it in
+    private MappedByteBuffer map(Path file) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            if (ch.size() != DistanceTable.bytes(cells))
+            {
+                throw new IOException(file + " is truncated");
+            }
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+        }
+    }
+
+    // Record the layer reached, replacing the old checkpoint in one step
+    private void writeCheckpoint(Path checkpoint, int depth, long total, boolean done) throws IOException
+    {
+        Path temp = temp(checkpoint);
+        Files.writeString(temp, width + " " + height + " " + depth + " " + total + (done ? " done" : "") + "\n");
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteRuns() throws IOException
+    {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "run-*.bin"))
+        {
+            for (Path file : files)
+            {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Path layer(int depth)
+    {
+        return directory.resolve("layer-" + depth + ".bin");
+    }
+
+    private Path run(int run)
+    {
+        return directory.resolve("run-" + run + ".bin");
+    }
+
+    private static Path temp(Path file)
+    {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Writes longs to a file through a direct buffer
+     */
+    private static class LongWriter implements AutoCloseable
+    {
+        private final FileChannel ch;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BYTES);
+
+        LongWriter(Path file) throws IOException
+        {
+            ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(long value) throws IOException
+        {
+            if (!bytes.hasRemaining())
+            {
+                flush();
+            }
+            bytes.putLong(value);
+        }
+
+        private void flush() throws IOException
+        {
+            bytes.flip();
+            while (bytes.hasRemaining())
+            {
+                ch.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            flush();
+            ch.close();
+        }
+    }
+
+    /**
+     * Reads longs back from a file written by LongWriter
+     */
+    private static class LongReader implements AutoCloseable
+    {
+        private final FileChannel ch;
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BYTES);
+        private boolean end;
+
+        LongReader(Path file) throws IOException
+        {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            bytes.limit(0);
+            fill();
+        }
+
+        boolean hasNext()
+        {
+            return bytes.hasRemaining();
+        }
+
+        long peek()
+        {
+            return bytes.getLong(bytes.position());
+        }
+
+        long next() throws IOException
+        {
+            long value = bytes.getLong();
+            if (!bytes.hasRemaining())
+            {
+                fill();
+            }
+            return value;
+        }
+
+        // Every file holds whole longs, so a full read never splits one
+        private void fill() throws IOException
+        {
+            bytes.clear();
+            while (!end && bytes.hasRemaining())
+            {
+                end = ch.read(bytes) < 0;
+            }
+            bytes.flip();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            ch.close();
+        }
+    }
+
+    /**
+     * Build a distance table from the command line
+     * Usage: java ExternalBFS [-m run-longs] [-d directory] width height
+     * @param args the optional run size and directory, then the board size
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int runLongs = DEFAULT_RUN_LONGS;
+        Path directory = Path.of("bfs");
+        int width = -1;
+        int height = -1;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-m" -> runLongs = Integer.parseInt(args[++i]);
+                case "-d" -> directory = Path.of(args[++i]);
+                default ->
+                {
+                    if (width == -1)
+                    {
+                        width = Integer.parseInt(args[i]);
+                    }
+                    else
+                    {
+                        height = Integer.parseInt(args[i]);
+                    }
+                }
+            }
+        }
+        if (height == -1)
+        {
+            System.err.println("Usage: java ExternalBFS [-m run-longs] [-d directory] width height");
+            System.exit(2);
+        }
+
+        ExternalBFS bfs = new ExternalBFS(width, height, directory, runLongs);
+        int diameter = bfs.run(System.out);
+
+        // Every solvable board should have been reached exactly once
+        long expected = DistanceTable.states(width * height);
+        String[] fields = Files.readString(directory.resolve("checkpoint")).trim().split(" ");
+        long total = Long.parseLong(fields[3]);
+        System.out.printf("%dx%d: %,d boards, farthest %d moves from solved%s%n", width, height, total,
+                diameter, total == expected ? "" : " (expected " + String.format("%,d", expected) + ")");
+        System.out.println("Table written to " + bfs.tableFile());
+    }
+}
@@ -0,0 +1,360 @@
+import java.util.Arrays;
+
+/**
+ * Headless copy of a board of any width and height, one int per cell.
+ *
+ * Cells are numbered in row-major order. The solved board has 1 to
+ * width * height - 1 in order with the empty cell, stored as 0, in the
+ * bottom right. Directions use the constants from BoardState.
+ */
+public class GridState
+{
+    // The value stored for the empty cell
+    public static final int EMPTY = 0;
+
+    private final int width;
+    private final int height;
+
+    // The value in every cell
+    private final int[] cells;
+
+    // The index of the empty cell
+    private int empty;
+
+    /**
+     * Create a solved GridState
+     * @param width  the number of columns, at least 2
+     * @param height the number of rows, at least 2
+     * @throws IllegalArgumentException if either dimension is less than 2
+     */
+    public GridState(int width, int height)
+    {
+        this(width, height, solvedCells(width, height));
+    }
+
+    // Used by fromValues and copy once the cells are known to be valid
+    private GridState(int width, int height, int[] cells)
+    {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        for (int pos = 0; pos < cells.length; pos++)
+        {
+            if (cells[pos] == EMPTY)
+            {
+                this.empty = pos;
+            }
+        }
+    }
+
+    /**
+     * Create a GridState from a list of Tile values in row-major order
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param values the values on the board, where -1 or 0 is the empty cell
+     * @return a new GridState with the given values
+     * @throws IllegalArgumentException if values isn't a permutation of the board
+     */
+    public static GridState fromValues(int width, int height, int[] values)
+    {
+        checkSize(width, height);
+        int size = width * height;
+        if (values.length != size)
+        {
+            throw new IllegalArgumentException("values must have exactly " + size + " entries");
+        }
+
+        // Make sure every value shows up exactly once
+        int[] cells = new int[size];
+        boolean[] seen = new boolean[size];
+        for (int pos = 0; pos < size; pos++)
+        {
+            int v = values[pos] == -1 ? EMPTY : values[pos];
+            if (v < 0 || v >= size || seen[v])
+            {
+                throw new IllegalArgumentException("values must contain each value from 0 to " + (size - 1) + " exactly once");
+            }
+            seen[v] = true;
+            cells[pos] = v;
+        }
+        return new GridState(width, height, cells);
+    }
+
+    /**
+     * Create a GridState with the same Tiles as a 4x4 BoardState
+     * @param state the board to copy
+     * @return a new 4x4 GridState
+     */
+    public static GridState of(BoardState state)
+    {
+        int[] cells = new int[BoardState.SIZE];
+        for (int pos = 0; pos < cells.length; pos++)
+        {
+            cells[pos] = state.get(pos);
+        }
+        return new GridState(BoardState.WIDTH, BoardState.HEIGHT, cells);
+    }
+
+    /**
+     * Get a 4x4 BoardState with the same Tiles as this GridState
+     * @return a new BoardState
+     * @throws IllegalStateException if this board isn't 4x4
+     */
+    public BoardState toBoardState()
+    {
+        if (width != BoardState.WIDTH || height != BoardState.HEIGHT)
+        {
+            throw new IllegalStateException("only 4x4 boards can be packed into a BoardState");
+        }
+        return BoardState.fromValues(cells);
+    }
+
+    /**
+     * Get a copy of this GridState that can be changed independently
+     * @return a new GridState with the same tiles
+     */
+    public GridState copy()
+    {
+        return new GridState(width, height, cells.clone());
+    }
+
+    /**
+     * Get the number of columns
+     * @return the width of the board
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Get the number of rows
+     * @return the height of the board
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Get the number of cells
+     * @return width * height
+     */
+    public int size()
+    {
+        return cells.length;
+    }
+
+    /**
+     * Get the index of the empty cell
+     * @return the row-major index of the empty cell
+     */
+    public int emptyPos()
+    {
+        return empty;
+    }
+
+    /**
+     * Get the value at a row-major index
+     * @param pos the index of the cell
+     * @return the value of the cell, 0 for the empty cell
+     */
+    public int get(int pos)
+    {
+        return cells[pos];
+    }
+
+    /**
+     * Get the value at (x, y)
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the value of the cell, 0 for the empty cell
+     */
+    public int get(int x, int y)
+    {
+        return cells[y * width + x];
+    }
+
+    /**
+     * Get a copy of every cell in row-major order
+     * @return the values on the board, 0 for the empty cell
+     */
+    public int[] values()
+    {
+        return cells.clone();
+    }
+
+    /**
+     * Get the directions the empty cell can move in
+     * @return a bitmask with bit dir set for every legal direction
+     */
+    public int moves()
+    {
+        int x = empty % width;
+        int y = empty / width;
+        int mask = 0;
+        if (y > 0)          mask |= 1 << BoardState.UP;
+        if (y < height - 1) mask |= 1 << BoardState.DOWN;
+        if (x > 0)          mask |= 1 << BoardState.LEFT;
+        if (x < width - 1)  mask |= 1 << BoardState.RIGHT;
+        return mask;
+    }
+
+    /**
+     * Check if the empty cell can move in a direction
+     * @param dir the direction to check
+     * @return true if the move stays on the board, false otherwise
+     */
+    public boolean canMove(int dir)
+    {
+        return (moves() & (1 << dir)) != 0;
+    }
+
+    /**
+     * Move the empty cell in a direction, sliding the Tile there into
+     * the empty cell's old position. The move must be legal.
+     * @param dir the direction to move the empty cell
+     * @return the value of the Tile that was moved
+     */
+    public int apply(int dir)
+    {
+        int target = empty + offset(dir);
+        int tile = cells[target];
+        cells[empty] = tile;
+        cells[target] = EMPTY;
+        empty = target;
+        return tile;
+    }
+
+    /**
+     * Undo a move made by apply(dir)
+     * @param dir the direction that was passed to apply
+     */
+    public void undo(int dir)
+    {
+        apply(dir ^ 1);
+    }
+
+    /**
+     * Get how far the empty cell's index changes when moving in a direction
+     * @param dir the direction of the move
+     * @return the change in the row-major index
+     */
+    public int offset(int dir)
+    {
+        return switch (dir)
+        {
+            case BoardState.UP -> -width;
+            case BoardState.DOWN -> width;
+            case BoardState.LEFT -> -1;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Get the direction the empty cell moves in to go between two
+     * neighboring cells
+     * @param from the index the empty cell starts at
+     * @param to   the index the empty cell ends at
+     * @return the direction of the move
+     * @throws IllegalArgumentException if the cells aren't neighbors
+     */
+    public int direction(int from, int to)
+    {
+        int d = to - from;
+        if (d == -width) return BoardState.UP;
+        if (d == width) return BoardState.DOWN;
+        if (d == -1 && from % width != 0) return BoardState.LEFT;
+        if (d == 1 && to % width != 0) return BoardState.RIGHT;
+        throw new IllegalArgumentException("cells must be next to each other");
+    }
+
+    /**
+     * Checks if every Tile is in order with the empty cell in the bottom right
+     * @return true if the board is solved, false otherwise
+     */
+    public boolean isSolved()
+    {
+        for (int pos = 0; pos < cells.length - 1; pos++)
+        {
+            if (cells[pos] != pos + 1)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if every Tile is in order with the empty cell in the top left
+     * @return true if the board is solved that way, false otherwise
+     */
+    public boolean isSolvedEmptyFirst()
+    {
+        for (int pos = 0; pos < cells.length; pos++)
+        {
+            if (cells[pos] != pos)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the board can be slid back into the solved board
+     * @return true if the board is solvable, false otherwise
+     */
+    public boolean isSolvable()
+    {
+        return Solvability.isSolvable(width, height, cells);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(cells) * 31 + width;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof GridState other && other.width == width && Arrays.equals(other.cells, cells);
+    }
+
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int pos = 0; pos < cells.length; pos++)
+        {
+            int v = cells[pos];
+            sb.append(v == EMPTY ? -1 : v);
+            if (pos < cells.length - 1)
+            {
+                sb.append(", ");
+            }
+        }
+        return sb.append("]").toString();
+    }
+
+    // Make sure both dimensions are big enough to slide Tiles around
+    private static void checkSize(int width, int height)
+    {
+        if (width < 2 || height < 2)
+        {
+            throw new IllegalArgumentException("boards must be at least 2x2");
+        }
+    }
+
+    // 1 to size - 1 in order, then the empty cell
+    private static int[] solvedCells(int width, int height)
+    {
+        checkSize(width, height);
+        int[] cells = new int[width * height];
+        for (int pos = 0; pos < cells.length - 1; pos++)
+        {
+            cells[pos] = pos + 1;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,11 @@
+public interface Heuristic
+{
+    /**
+     * Estimate how many moves it takes to solve a board. The estimate must
+     * never be more than the real number of moves so that searches using
+     * it stay optimal.
+     * @param state the board to estimate
+     * @return a lower bound on the number of moves to solve state
+     */
+    int estimate(BoardState state);
+}
@@ -0,0 +1,236 @@
+public class IDASolver
+{
+    // Longest possible optimal solution is 80 moves, leave plenty of room
+    private static final int MAX_DEPTH = 128;
+
+    // A timed solve checks the clock and for interrupts this often, in nodes
+    private static final long CHECK_MASK = (1 << 12) - 1;
+
+    private final Heuristic heuristic;
+
+    // The same heuristic if it can update its estimate move by move, or null
+    private final IncrementalHeuristic incremental;
+
+    // Lower bounds learned by earlier searches, or null to not use one
+    private final TranspositionTable table;
+
+    // The board being searched, changed in place by apply/undo
+    private BoardState state;
+
+    // The moves on the current search path
+    private final byte[] path = new byte[MAX_DEPTH];
+
+    // Statistics for the current solve
+    private long nodes;
+
+    // The smallest f value that went over the bound this iteration
+    private int nextBound;
+
+    // When a timed solve gives up, and whether it has
+    private boolean timed;
+    private long deadline;
+    private boolean stopped;
+
+    /**
+     * Create an IDASolver that uses taxicab distance plus linear conflicts
+     */
+    public IDASolver()
+    {
+        this(new ManhattanHeuristic());
+    }
+
+    /**
+     * Create an IDASolver with a custom Heuristic
+     * @param heuristic an admissible heuristic to guide the search
+     */
+    public IDASolver(Heuristic heuristic)
+    {
+        this(heuristic, null);
+    }
+
+    /**
+     * Create an IDASolver that also remembers what it learns in a TranspositionTable.
+     * The table only ever raises the heuristic to a bound that is still
+     * admissible, so the moves found are the same as without it.
+     * @param heuristic an admissible heuristic to guide the search
+     * @param table     where to look up and store lower bounds, which can be
+     *                  shared with other solvers, or null to not use one
+     */
+    public IDASolver(Heuristic heuristic, TranspositionTable table)
+    {
+        this.heuristic = heuristic;
+        this.incremental = heuristic instanceof IncrementalHeuristic ih ? ih : null;
+        this.table = table;
+    }
+
+    /**
+     * Find a shortest solution for the given board
+     * @param start the board to solve, which is not changed
+     * @return the moves of a shortest solution and search statistics
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public SolveResult solve(BoardState start)
+    {
+        return deepen(start, false, 0);
+    }
+
+    /**
+     * Find a shortest solution for the given board, giving up if it takes
+     * too long or the calling thread is interrupted. The interrupt is left
+     * set for the caller to see.
+     * @param start   the board to solve, which is not changed
+     * @param timeout the most time to spend, in nanoseconds
+     * @return the moves of a shortest solution and search statistics, or
+     * null if the time ran out or the thread was interrupted first
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public SolveResult solve(BoardState start, long timeout)
+    {
+        return deepen(start, true, timeout);
+    }
+
+    private SolveResult deepen(BoardState start, boolean timed, long timeout)
+    {
+        if (!start.isSolvable())
+        {
+            throw new IllegalArgumentException("board is not solvable");
+        }
+
+        long startTime = System.nanoTime();
+        this.timed = timed;
+        this.deadline = startTime + timeout;
+        this.stopped = false;
+        state = start.copy();
+        nodes = 0;
+        if (table != null)
+        {
+            table.newSearch();
+        }
+
+        // Deepen the bound until a solution is found
+        int base = heuristic.estimate(state);
+        int bound = estimate(base);
+        int length;
+        while (true)
+        {
+            nextBound = Integer.MAX_VALUE;
+            length = search(0, bound, -1, 0, base);
+            if (length >= 0)
+            {
+                break;
+            }
+            if (stopped)
+            {
+                return null;
+            }
+            bound = nextBound;
+        }
+
+        byte[] moves = new byte[length];
+        System.arraycopy(path, 0, moves, 0, length);
+        return new SolveResult(moves, nodes, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Find a shortest solution for the given Board
+     * @param board the Board to solve, which is not changed
+     * @return the moves of a shortest solution and search statistics
+     */
+    public static SolveResult solve(Board board)
+    {
+        return new IDASolver().solve(board.getState());
+    }
+
+    // The heuristic's estimate for the board, raised to the bound in the
+    // table if there is a bigger one
+    private int estimate(int base)
+    {
+        int h = base;
+        if (table != null)
+        {
+            h = Math.max(h, table.get(state.packed(), state.zobrist()));
+        }
+        return h;
+    }
+
+    // Depth first search below the current path
+    // g is the number of moves made so far, prev is the last move made
+    // and parentH is the estimate for the board before it
+    // base is the heuristic's own estimate for this board if the parent
+    // could work it out from its own, and -1 otherwise
+    // Returns the solution length if one was found and -1 otherwise
+    private int search(int g, int bound, int prev, int parentH, int base)
+    {
+        nodes++;
+        if (timed && (nodes & CHECK_MASK) == 0
+                && (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()))
+        {
+            stopped = true;
+        }
+        if (stopped)
+        {
+            return -1;
+        }
+
+        if (base < 0)
+        {
+            base = heuristic.estimate(state);
+        }
+        int h = estimate(base);
+        int f = g + h;
+        if (f > bound)
+        {
+            nextBound = Math.min(nextBound, f);
+            return -1;
+        }
+        if (state.isSolved())
+        {
+            return g;
+        }
+
+        // Track the smallest f that went over the bound below this board on its own
+        int outerBound = nextBound;
+        nextBound = Integer.MAX_VALUE;
+
+        int moves = state.moves();
+        for (int dir = 0; dir < 4; dir++)
+        {
+            // Skip illegal moves and moves that undo the last move
+            if ((moves & (1 << dir)) == 0 || dir == (prev ^ 1))
+            {
+                continue;
+            }
+
+            // Only the Tile that slides changes, so update the estimate for it
+            int childBase = incremental != null ? base + incremental.delta(state, dir) : -1;
+            state.apply(dir);
+            path[g] = (byte) dir;
+            int found = search(g + 1, bound, dir, h, childBase);
+            state.undo(dir);
+
+            if (found >= 0)
+            {
+                return found;
+            }
+        }
+
+        // A search that gave up proved nothing about this board
+        if (stopped)
+        {
+            return -1;
+        }
+        if (table != null)
+        {
+            // Every solution from here goes over the bound somewhere below,
+            // or starts by undoing prev, which was never searched
+            int below = nextBound;
+            if (prev != -1)
+            {
+                below = Math.min(below, g + 1 + parentH);
+            }
+            table.put(state.packed(), state.zobrist(), below - g, bound - g);
+        }
+        nextBound = Math.min(outerBound, nextBound);
+        return -1;
+    }
+}
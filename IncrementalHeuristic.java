@@ -0,0 +1,18 @@
+/**
+ * A Heuristic that can work out how one move changes its estimate without
+ * estimating the new board from scratch. Only the Tile that slides moves,
+ * so only the parts of the estimate that depend on it need looking at.
+ *
+ * Searches that know the estimate of a board add delta for each move
+ * instead of calling estimate on every child.
+ */
+public interface IncrementalHeuristic extends Heuristic
+{
+    /**
+     * Get how much the estimate changes when a move is made
+     * @param state the board before the move, which is not changed
+     * @param dir   the move about to be made, which must be legal
+     * @return the estimate after the move minus the estimate before it
+     */
+    int delta(BoardState state, int dir);
+}
@@ -0,0 +1,70 @@
+/**
+ * Inversion distance, a lower bound that looks at the order of the Tiles
+ * rather than how far each one is from its goal.
+ *
+ * Reading the Tiles in row-major order and skipping the empty cell, a left
+ * or right move doesn't change the order at all, while an up or down move
+ * jumps one Tile over the 3 between it and the empty cell. That changes the
+ * number of pairs out of order by 1 or 3, so a board with n inversions
+ * needs at least n / 3 + n % 3 up and down moves. Reading in column-major
+ * order, with Tiles ordered by their goals in column-major order, bounds
+ * the left and right moves the same way, and the two add up.
+ *
+ * It is weaker than walking distance on most boards but sometimes beats it,
+ * so it is best used alongside it in a MaxHeuristic.
+ */
+public class InversionDistanceHeuristic implements Heuristic
+{
+    // The rank of each Tile value's goal in column-major order, from 1
+    private static final int[] COLUMN_RANK = new int[BoardState.SIZE];
+
+    static
+    {
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            int gx = (v - 1) % BoardState.WIDTH;
+            int gy = (v - 1) / BoardState.WIDTH;
+            COLUMN_RANK[v] = gx * BoardState.HEIGHT + gy + 1;
+        }
+    }
+
+    @Override
+    public int estimate(BoardState state)
+    {
+        // Each Tile is out of order with every bigger one already read
+        int rowInversions = 0;
+        int seen = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int v = state.get(pos);
+            if (v != BoardState.EMPTY)
+            {
+                rowInversions += Integer.bitCount(seen >>> v);
+                seen |= 1 << v;
+            }
+        }
+
+        int columnInversions = 0;
+        seen = 0;
+        for (int x = 0; x < BoardState.WIDTH; x++)
+        {
+            for (int y = 0; y < BoardState.HEIGHT; y++)
+            {
+                int rank = COLUMN_RANK[state.get(y * BoardState.WIDTH + x)];
+                if (rank != 0)
+                {
+                    columnInversions += Integer.bitCount(seen >>> rank);
+                    seen |= 1 << rank;
+                }
+            }
+        }
+
+        return moves(rowInversions) + moves(columnInversions);
+    }
+
+    // Fewest moves that each fix 1 or 3 inversions to fix them all
+    private static int moves(int inversions)
+    {
+        return inversions / 3 + inversions % 3;
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Solves very large boards, like 1000x1000, without JavaFX.
+ *
+ * A random solvable board of the given size is shuffled from a seed and
+ * solved with ReductionSolver. The moves are streamed to a move file, or
+ * only counted if no file is given, so memory use stays a few ints per cell
+ * however long the solution is. With -v the move file is read back and
+ * replayed on the starting board to check it.
+ *
+ * Usage: java LargeBoardSolver [-s seed] [-o moves-file] [-v] width [height]
+ */
+public class LargeBoardSolver
+{
+    // Counts moves without storing them
+    private static class Counter implements MoveSink
+    {
+        long count;
+
+        @Override
+        public void add(int dir)
+        {
+            count++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        long seed = 42;
+        Path output = null;
+        boolean verify = false;
+        int width = -1;
+        int height = -1;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-s" -> seed = Long.parseLong(args[++i]);
+                case "-o" -> output = Path.of(args[++i]);
+                case "-v" -> verify = true;
+                default ->
+                {
+                    if (width == -1)
+                    {
+                        width = Integer.parseInt(args[i]);
+                    }
+                    else
+                    {
+                        height = Integer.parseInt(args[i]);
+                    }
+                }
+            }
+        }
+        if (width == -1)
+        {
+            System.err.println("Usage: java LargeBoardSolver [-s seed] [-o moves-file] [-v] width [height]");
+            System.exit(2);
+        }
+        if (height == -1)
+        {
+            height = width;
+        }
+        if (verify && output == null)
+        {
+            System.err.println("-v needs a moves file from -o");
+            System.exit(2);
+        }
+
+        GridState start = new BoardGenerator(seed).nextGrid(width, height);
+
+        long time = System.nanoTime();
+        long moves;
+        if (output == null)
+        {
+            Counter counter = new Counter();
+            moves = ReductionSolver.solve(start, counter);
+        }
+        else
+        {
+            try (MoveFile file = MoveFile.create(output))
+            {
+                moves = ReductionSolver.solve(start, file);
+            }
+        }
+        double seconds = (System.nanoTime() - time) / 1e9;
+
+        Runtime rt = Runtime.getRuntime();
+        System.out.printf("%dx%d: %d moves in %.2f s (%.1f million moves/s), %d MB heap in use%n",
+                width, height, moves, seconds, moves / seconds / 1e6,
+                (rt.totalMemory() - rt.freeMemory()) >> 20);
+
+        if (verify)
+        {
+            GridState replay = start.copy();
+            MoveFile.replay(output, replay::apply);
+            System.out.println(replay.isSolved() ? "replay solves the board" : "REPLAY DOES NOT SOLVE THE BOARD");
+        }
+    }
+}
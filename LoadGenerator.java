@@ -0,0 +1,205 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends solve requests to a SolveServer with a fixed number open at once and
+ * reports the throughput and latency percentiles.
+ *
+ * Boards are random walks from the solved board, with a new walk for a
+ * share of the requests and a repeat of an earlier board, or its
+ * reflection, for the rest, so both searches and cache hits are exercised.
+ * Every solution that comes back is checked against its board.
+ *
+ * Usage: java LoadGenerator [-u url] [-n requests] [-c concurrent] [-w walk]
+ * [-r repeat fraction] [-b budget ms] [-s seed]
+ */
+public class LoadGenerator
+{
+    // The percentiles to report
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final HttpClient client;
+    private final URI base;
+    private final long budget;
+
+    // How every request turned out
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Create a LoadGenerator
+     * @param base   the server's address, like http://127.0.0.1:8015/
+     * @param budget the budget each request asks for, in milliseconds
+     */
+    public LoadGenerator(URI base, long budget)
+    {
+        this.base = base;
+        this.budget = budget;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(SolveServer.newTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Send every board, keeping at most concurrent requests open at once
+     * @param boards     the boards to solve
+     * @param concurrent the most requests to have open at once
+     * @return the latency of each request in nanoseconds, in the order they finished
+     * @throws InterruptedException if interrupted while waiting for requests
+     */
+    public long[] run(BoardState[] boards, int concurrent) throws InterruptedException
+    {
+        Semaphore open = new Semaphore(concurrent);
+        long[] latency = new long[boards.length];
+        AtomicInteger finished = new AtomicInteger();
+        for (BoardState board : boards)
+        {
+            open.acquire();
+            String query = "board=" + URLEncoder.encode(board.toString(), StandardCharsets.UTF_8) + "&budget=" + budget;
+            HttpRequest request = HttpRequest.newBuilder(base.resolve("/solve?" + query)).GET().build();
+            long time = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+                latency[finished.getAndIncrement()] = System.nanoTime() - time;
+                try
+                {
+                    if (ex != null)
+                    {
+                        failed.increment();
+                    }
+                    else if (response.statusCode() == 503)
+                    {
+                        unavailable.increment();
+                    }
+                    else if (response.statusCode() == 200 && solves(board, response.body()))
+                    {
+                        solved.increment();
+                    }
+                    else
+                    {
+                        failed.increment();
+                    }
+                }
+                catch (RuntimeException bad)
+                {
+                    // A body that can't be read counts as a failure
+                    failed.increment();
+                }
+                finally
+                {
+                    open.release();
+                }
+            });
+        }
+
+        // Wait for the last requests
+        open.acquire(concurrent);
+        return latency;
+    }
+
+    // Check that the moves in a response solve the board
+    private static boolean solves(BoardState board, String body)
+    {
+        String[] lines = body.split("\n");
+        int length = Integer.parseInt(lines[0].split("\t")[0]);
+        BoardState s = board.copy();
+        int count = 0;
+        for (int i = 1; i < lines.length; i++)
+        {
+            for (char c : lines[i].toCharArray())
+            {
+                int dir = "UDLR".indexOf(c);
+                if (dir < 0 || !s.canMove(dir))
+                {
+                    return false;
+                }
+                s.apply(dir);
+                count++;
+            }
+        }
+        return count == length && s.isSolved();
+    }
+
+    /**
+     * Get the latency percentiles of a run
+     * @param latency the latency of each request in nanoseconds, which is sorted in place
+     * @return one line with the percentiles and the worst latency, in milliseconds
+     */
+    public static String percentiles(long[] latency)
+    {
+        Arrays.sort(latency);
+        StringBuilder sb = new StringBuilder();
+        for (double p : PERCENTILES)
+        {
+            int i = (int) Math.ceil(p / 100 * latency.length) - 1;
+            String label = p % 1 == 0 ? Long.toString((long) p) : Double.toString(p);
+            sb.append(String.format("p%s %.2f ms, ", label, latency[Math.max(0, i)] / 1e6));
+        }
+        return sb.append(String.format("max %.2f ms", latency[latency.length - 1] / 1e6)).toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        URI base = URI.create("http://127.0.0.1:" + SolveServer.DEFAULT_PORT + "/");
+        int count = 10_000;
+        int concurrent = 1000;
+        int walk = 30;
+        double repeat = 0.5;
+        long budget = SolveServer.DEFAULT_BUDGET;
+        long seed = 42;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-u" -> base = URI.create(args[++i]);
+                case "-n" -> count = Integer.parseInt(args[++i]);
+                case "-c" -> concurrent = Integer.parseInt(args[++i]);
+                case "-w" -> walk = Integer.parseInt(args[++i]);
+                case "-r" -> repeat = Double.parseDouble(args[++i]);
+                case "-b" -> budget = Long.parseLong(args[++i]);
+                case "-s" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+
+        // New walks, and repeats of earlier boards or their reflections
+        SplittableRandom random = new SplittableRandom(seed);
+        BoardState[] boards = new BoardState[count];
+        for (int i = 0; i < count; i++)
+        {
+            if (i == 0 || random.nextDouble() >= repeat)
+            {
+                boards[i] = DepthGenerator.walk(random, walk);
+            }
+            else
+            {
+                long tiles = boards[random.nextInt(i)].packed();
+                boards[i] = new BoardState(random.nextBoolean() ? tiles : SolutionCache.reflect(tiles));
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(base, budget);
+        long time = System.nanoTime();
+        long[] latency = generator.run(boards, concurrent);
+        double seconds = (System.nanoTime() - time) / 1e9;
+
+        System.out.printf("%d requests, %d open at once, in %.2f s (%.1f requests/s)%n",
+                count, concurrent, seconds, count / seconds);
+        System.out.printf("solved %d, out of time %d, failed %d%n",
+                generator.solved.sum(), generator.unavailable.sum(), generator.failed.sum());
+        System.out.println(percentiles(latency));
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+/**
+ * A hash map from long keys to non-negative int values, stored in two
+ * primitive arrays with linear probing so nothing is boxed.
+ *
+ * Keys are spread over the table by multiplying with a large odd constant
+ * and keeping the top bits, so packed boards, whose low bits hardly change
+ * between neighbors, don't pile up in one place.
+ */
+public class LongIntMap
+{
+    // Marks an empty slot in values
+    private static final int FREE = -1;
+
+    // Grow once the table is this full
+    private static final double LOAD_FACTOR = 0.5;
+
+    // 2^64 divided by the golden ratio
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+
+    /**
+     * Create an empty LongIntMap
+     * @param expected how many entries to make room for before growing
+     */
+    public LongIntMap(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value for a key
+     * @param key the key to look up
+     * @return the value, or -1 if the key isn't in the map
+     */
+    public int get(long key)
+    {
+        for (int i = slot(key); ; i = (i + 1) & mask)
+        {
+            if (values[i] == FREE)
+            {
+                return FREE;
+            }
+            if (keys[i] == key)
+            {
+                return values[i];
+            }
+        }
+    }
+
+    /**
+     * Set the value for a key, replacing any value it already had
+     * @param key   the key to set
+     * @param value the value, which must not be negative
+     * @throws IllegalArgumentException if value is negative
+     */
+    public void put(long key, int value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("values must not be negative");
+        }
+
+        int i = slot(key);
+        while (values[i] != FREE && keys[i] != key)
+        {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == FREE)
+        {
+            size++;
+        }
+        keys[i] = key;
+        values[i] = value;
+
+        if (size > keys.length * LOAD_FACTOR)
+        {
+            grow();
+        }
+    }
+
+    /**
+     * Get the number of keys in the map
+     * @return the number of entries
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remove every entry, keeping the memory already allocated
+     */
+    public void clear()
+    {
+        Arrays.fill(values, FREE);
+        size = 0;
+    }
+
+    // Double the table and put every entry back
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldValues[i] != FREE)
+            {
+                int j = slot(oldKeys[i]);
+                while (values[j] != FREE)
+                {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    // Where a key's probe sequence starts
+    private int slot(long key)
+    {
+        return (int) ((key * SPREAD) >>> shift);
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, FREE);
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.Arrays;
+
+public class ManhattanHeuristic implements IncrementalHeuristic
+{
+    // Taxicab distance from each position to the goal of each Tile value
+    // Indexed by [value][position], the empty cell (0) is always 0
+    private static final int[][] DISTANCE = new int[BoardState.SIZE][BoardState.SIZE];
+
+    // How far the empty cell's index changes for each direction
+    private static final int[] OFFSET = {-BoardState.WIDTH, BoardState.WIDTH, -1, 1};
+
+    // Change in taxicab distance when the empty cell moves in a direction,
+    // indexed by value << 6 | empty cell << 2 | direction for the Tile
+    // value next to the empty cell in that direction
+    private static final byte[] DISTANCE_DELTA = new byte[BoardState.SIZE << 6];
+
+    // Each cell of a line gets a 3 bit code: the Tile's goal spot along the
+    // line if its goal is in the line, or NOT_IN_LINE otherwise
+    private static final int NOT_IN_LINE = 4;
+
+    // ROW_CODE[y][v] and COLUMN_CODE[x][v] are the codes for value v in row y and column x
+    private static final int[][] ROW_CODE = new int[BoardState.HEIGHT][BoardState.SIZE];
+    private static final int[][] COLUMN_CODE = new int[BoardState.WIDTH][BoardState.SIZE];
+
+    // Linear conflicts in a line, indexed by the codes of its 4 cells packed 3 bits each
+    private static final byte[] LINE_CONFLICTS = new byte[1 << 12];
+
+    static
+    {
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            int gx = (v - 1) % BoardState.WIDTH;
+            int gy = (v - 1) / BoardState.WIDTH;
+            for (int pos = 0; pos < BoardState.SIZE; pos++)
+            {
+                int x = pos % BoardState.WIDTH;
+                int y = pos / BoardState.WIDTH;
+                DISTANCE[v][pos] = Math.abs(x - gx) + Math.abs(y - gy);
+            }
+        }
+
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            for (int empty = 0; empty < BoardState.SIZE; empty++)
+            {
+                int x = empty % BoardState.WIDTH;
+                int y = empty / BoardState.WIDTH;
+                for (int dir = 0; dir < 4; dir++)
+                {
+                    boolean onBoard = switch (dir)
+                    {
+                        case BoardState.UP -> y > 0;
+                        case BoardState.DOWN -> y < BoardState.HEIGHT - 1;
+                        case BoardState.LEFT -> x > 0;
+                        default -> x < BoardState.WIDTH - 1;
+                    };
+                    if (onBoard)
+                    {
+                        // The Tile slides from next to the empty cell into it
+                        int from = empty + OFFSET[dir];
+                        DISTANCE_DELTA[v << 6 | empty << 2 | dir] = (byte) (DISTANCE[v][empty] - DISTANCE[v][from]);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < BoardState.WIDTH; i++)
+        {
+            Arrays.fill(ROW_CODE[i], NOT_IN_LINE);
+            Arrays.fill(COLUMN_CODE[i], NOT_IN_LINE);
+        }
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            int gx = (v - 1) % BoardState.WIDTH;
+            int gy = (v - 1) / BoardState.WIDTH;
+            ROW_CODE[gy][v] = gx;
+            COLUMN_CODE[gx][v] = gy;
+        }
+
+        // Every line with Tiles out of order along it needs that many to
+        // leave the line so the rest are in order
+        for (int key = 0; key < LINE_CONFLICTS.length; key++)
+        {
+            int count = 0;
+            int goals = 0;
+            for (int i = 0; i < 4; i++)
+            {
+                int code = (key >>> (i * 3)) & 7;
+                if (code < NOT_IN_LINE)
+                {
+                    goals |= code << (count << 2);
+                    count++;
+                }
+            }
+            LINE_CONFLICTS[key] = (byte) (count - longestIncreasing(goals, count));
+        }
+    }
+
+    // Whether or not to add linear conflicts on top of the taxicab distance
+    private final boolean linearConflict;
+
+    /**
+     * Create a ManhattanHeuristic that also counts linear conflicts
+     */
+    public ManhattanHeuristic()
+    {
+        this(true);
+    }
+
+    /**
+     * Create a ManhattanHeuristic
+     * @param linearConflict true to add linear conflicts to the estimate
+     */
+    public ManhattanHeuristic(boolean linearConflict)
+    {
+        this.linearConflict = linearConflict;
+    }
+
+    /**
+     * Get the taxicab distance of a Tile value from its goal
+     * @param value the value of the Tile
+     * @param pos   the position of the Tile
+     * @return the distance from pos to the goal of value
+     */
+    public static int distance(int value, int pos)
+    {
+        return DISTANCE[value][pos];
+    }
+
+    @Override
+    public int estimate(BoardState state)
+    {
+        int h = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            h += DISTANCE[state.get(pos)][pos];
+        }
+
+        if (linearConflict)
+        {
+            for (int i = 0; i < BoardState.WIDTH; i++)
+            {
+                h += 2 * LINE_CONFLICTS[rowKey(state, i)] + 2 * LINE_CONFLICTS[columnKey(state, i)];
+            }
+        }
+
+        return h;
+    }
+
+    @Override
+    public int delta(BoardState state, int dir)
+    {
+        int empty = state.emptyPos();
+        int from = empty + OFFSET[dir];
+        int v = state.get(from);
+        int delta = DISTANCE_DELTA[v << 6 | empty << 2 | dir];
+        if (!linearConflict)
+        {
+            return delta;
+        }
+
+        // A Tile sliding up or down stays in its column and changes rows, so
+        // only those two rows change, and the same for columns going sideways
+        int fromKey;
+        int toKey;
+        int shift;
+        int code;
+        if (dir == BoardState.UP || dir == BoardState.DOWN)
+        {
+            fromKey = rowKey(state, from / BoardState.WIDTH);
+            toKey = rowKey(state, empty / BoardState.WIDTH);
+            shift = (empty % BoardState.WIDTH) * 3;
+            code = ROW_CODE[empty / BoardState.WIDTH][v];
+        }
+        else
+        {
+            fromKey = columnKey(state, from % BoardState.WIDTH);
+            toKey = columnKey(state, empty % BoardState.WIDTH);
+            shift = (empty / BoardState.WIDTH) * 3;
+            code = COLUMN_CODE[empty % BoardState.WIDTH][v];
+        }
+
+        // The Tile leaves its spot in one line and takes the empty cell's spot in the other
+        int fromAfter = (fromKey & ~(7 << shift)) | NOT_IN_LINE << shift;
+        int toAfter = (toKey & ~(7 << shift)) | code << shift;
+        return delta + 2 * (LINE_CONFLICTS[fromAfter] + LINE_CONFLICTS[toAfter]
+                - LINE_CONFLICTS[fromKey] - LINE_CONFLICTS[toKey]);
+    }
+
+    // The codes of the cells in row y, 3 bits each
+    private static int rowKey(BoardState state, int y)
+    {
+        int key = 0;
+        for (int x = 0; x < BoardState.WIDTH; x++)
+        {
+            key |= ROW_CODE[y][state.get(x, y)] << (x * 3);
+        }
+        return key;
+    }
+
+    // The codes of the cells in column x, 3 bits each
+    private static int columnKey(BoardState state, int x)
+    {
+        int key = 0;
+        for (int y = 0; y < BoardState.HEIGHT; y++)
+        {
+            key |= COLUMN_CODE[x][state.get(x, y)] << (y * 3);
+        }
+        return key;
+    }
+
+    // Length of the longest increasing subsequence of count values
+    // packed 4 bits each into seq
+    // Lines are at most 4 long, so the quadratic version is plenty
+    private static int longestIncreasing(int seq, int count)
+    {
+        int best = 0;
+        int lengths = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int vi = (seq >>> (i << 2)) & 0xF;
+            int len = 1;
+            for (int j = 0; j < i; j++)
+            {
+                int vj = (seq >>> (j << 2)) & 0xF;
+                int lj = (lengths >>> (j << 2)) & 0xF;
+                if (vj < vi && lj + 1 > len)
+                {
+                    len = lj + 1;
+                }
+            }
+            lengths |= len << (i << 2);
+            best = Math.max(best, len);
+        }
+        return best;
+    }
+}
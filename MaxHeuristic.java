@@ -0,0 +1,37 @@
+/**
+ * Takes the largest estimate of several heuristics. Each is a lower bound,
+ * so the largest is too, and it is at least as good as any of them alone.
+ *
+ * Useful for heuristics that catch different things but can't be added,
+ * like walking distance and linear conflicts, which both count some of the
+ * same moves.
+ */
+public class MaxHeuristic implements Heuristic
+{
+    private final Heuristic[] heuristics;
+
+    /**
+     * Create a heuristic that takes the largest of several estimates
+     * @param heuristics the admissible heuristics to combine
+     * @throws IllegalArgumentException if no heuristics are given
+     */
+    public MaxHeuristic(Heuristic... heuristics)
+    {
+        if (heuristics.length == 0)
+        {
+            throw new IllegalArgumentException("at least one heuristic is needed");
+        }
+        this.heuristics = heuristics.clone();
+    }
+
+    @Override
+    public int estimate(BoardState state)
+    {
+        int h = 0;
+        for (Heuristic heuristic : heuristics)
+        {
+            h = Math.max(h, heuristic.estimate(state));
+        }
+        return h;
+    }
+}
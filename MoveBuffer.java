@@ -0,0 +1,75 @@
+import java.util.Arrays;
+
+/**
+ * A growable list of moves, stored one byte per move using the
+ * direction constants from BoardState
+ */
+public class MoveBuffer implements MoveSink
+{
+    private byte[] moves;
+    private int size;
+
+    /**
+     * Create an empty MoveBuffer
+     */
+    public MoveBuffer()
+    {
+        this.moves = new byte[64];
+    }
+
+    /**
+     * Add a move to the end of the buffer
+     * @param dir the direction the empty cell moved in
+     */
+    @Override
+    public void add(int dir)
+    {
+        if (size == moves.length)
+        {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = (byte) dir;
+    }
+
+    /**
+     * Add several moves to the end of the buffer
+     * @param dirs the directions the empty cell moved in
+     */
+    public void addAll(byte[] dirs)
+    {
+        if (size + dirs.length > moves.length)
+        {
+            moves = Arrays.copyOf(moves, Math.max(moves.length * 2, size + dirs.length));
+        }
+        System.arraycopy(dirs, 0, moves, size, dirs.length);
+        size += dirs.length;
+    }
+
+    /**
+     * Get a move in the buffer
+     * @param i the index of the move
+     * @return the direction of the ith move
+     */
+    public int get(int i)
+    {
+        return moves[i];
+    }
+
+    /**
+     * Get the number of moves in the buffer
+     * @return the number of moves
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Copy the moves into an array
+     * @return a new array holding exactly the moves in the buffer
+     */
+    public byte[] toArray()
+    {
+        return Arrays.copyOf(moves, size);
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file of moves packed 2 bits each, 4 to a byte with the first move in the
+ * lowest bits. The file starts with "MOV1" and the number of moves as a long,
+ * which is filled in when the writer is closed.
+ *
+ * A MoveFile is a MoveSink, so a solver can stream a solution straight to
+ * disk using a fixed amount of memory no matter how long the solution is.
+ */
+public class MoveFile implements MoveSink, AutoCloseable
+{
+    // Marks the start of a move file, "MOV1"
+    private static final int MAGIC = 0x4D4F5631;
+
+    // Magic number and move count
+    private static final int HEADER = 12;
+
+    // How much is packed in memory before writing
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // Moves in the byte being packed
+    private int pending;
+    private int pendingCount;
+
+    private long count;
+
+    private MoveFile(FileChannel channel)
+    {
+        this.channel = channel;
+    }
+
+    /**
+     * Create a move file, replacing it if it exists
+     * @param file the file to write moves to
+     * @return a MoveFile that moves can be added to
+     * @throws IOException if the file can't be created
+     */
+    public static MoveFile create(Path file) throws IOException
+    {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ch.position(HEADER);
+        return new MoveFile(ch);
+    }
+
+    /**
+     * Add a move to the end of the file
+     * @param dir the direction the empty cell moved in
+     * @throws UncheckedIOException if writing fails
+     */
+    @Override
+    public void add(int dir)
+    {
+        pending |= dir << (pendingCount << 1);
+        count++;
+        if (++pendingCount == 4)
+        {
+            if (!buffer.hasRemaining())
+            {
+                flush();
+            }
+            buffer.put((byte) pending);
+            pending = 0;
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * Get the number of moves added so far
+     * @return the number of moves
+     */
+    public long count()
+    {
+        return count;
+    }
+
+    /**
+     * Write any remaining moves and the move count, then close the file
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try (channel)
+        {
+            if (pendingCount > 0)
+            {
+                if (!buffer.hasRemaining())
+                {
+                    flush();
+                }
+                buffer.put((byte) pending);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(MAGIC);
+            header.putLong(count);
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+        }
+    }
+
+    // Write the packed bytes to the file
+    private void flush()
+    {
+        buffer.flip();
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Read every move in a move file in order
+     * @param file the file to read
+     * @param sink where to send the moves
+     * @return the number of moves read
+     * @throws IOException if the file can't be read or isn't a move file
+     */
+    public static long replay(Path file, MoveSink sink) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.BIG_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0)
+            {
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC)
+            {
+                throw new IOException(file + " is not a move file");
+            }
+            long count = header.getLong();
+            if (ch.size() - HEADER < (count + 3) / 4)
+            {
+                throw new IOException(file + " is truncated");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long left = count;
+            while (left > 0)
+            {
+                buffer.clear();
+                ch.read(buffer);
+                buffer.flip();
+                while (buffer.hasRemaining() && left > 0)
+                {
+                    int packed = buffer.get();
+                    for (int i = 0; i < 4 && left > 0; i++, left--)
+                    {
+                        sink.add((packed >>> (i << 1)) & 3);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Shortens a solution without changing where it ends up.
+ *
+ * Three passes run until none of them finds anything more to remove:
+ * moves followed straight away by their opposite are cancelled, stretches
+ * that come back to a board seen earlier are cut out, and short windows are
+ * swapped for the shortest sequence with the same effect from a table built
+ * once by enumerating every short sequence.
+ */
+public class MoveOptimizer
+{
+    // Every sequence up to this long is put in the table
+    private static final int TABLE_DEPTH = 8;
+
+    // The longest window that is looked up in the table
+    private static final int WINDOW = 12;
+
+    // The shortest sequence for every effect, built the first time it is needed
+    private static HashMap<String, byte[]> table;
+
+    private MoveOptimizer()
+    {
+    }
+
+    /**
+     * Shorten a solution for a 4x4 board
+     * @param start the board the moves start from, which is not changed
+     * @param moves the directions the empty cell moves in, using the constants from BoardState
+     * @return moves that reach the same board, no longer than the original
+     */
+    public static byte[] optimize(BoardState start, byte[] moves)
+    {
+        return optimize(GridState.of(start), moves);
+    }
+
+    /**
+     * Shorten a solution for a board of any size
+     * @param start the board the moves start from, which is not changed
+     * @param moves the directions the empty cell moves in, using the constants from BoardState
+     * @return moves that reach the same board, no longer than the original
+     */
+    public static byte[] optimize(GridState start, byte[] moves)
+    {
+        byte[] result = moves;
+        int length;
+        do
+        {
+            length = result.length;
+            result = cancelInverses(result);
+            result = removeCycles(start, result);
+            result = replaceWindows(start, result);
+        } while (result.length < length);
+        return result;
+    }
+
+    /**
+     * Remove every move that is followed straight away by its opposite,
+     * including pairs that only meet once the pairs between them are gone
+     * @param moves the moves to simplify
+     * @return the moves without any back and forth
+     */
+    public static byte[] cancelInverses(byte[] moves)
+    {
+        // Works like matching brackets
+        byte[] out = new byte[moves.length];
+        int size = 0;
+        for (byte m : moves)
+        {
+            if (size > 0 && out[size - 1] == (m ^ 1))
+            {
+                size--;
+            }
+            else
+            {
+                out[size++] = m;
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Cut out every stretch of moves that comes back to a board it already passed through
+     * @param start the board the moves start from, which is not changed
+     * @param moves the moves to simplify
+     * @return the moves with no board visited twice
+     */
+    public static byte[] removeCycles(GridState start, byte[] moves)
+    {
+        GridState state = start.copy();
+        Zobrist zobrist = new Zobrist(state);
+
+        // Where in out each board was last seen, by hash
+        LongIntMap seen = new LongIntMap(moves.length + 1);
+        byte[] out = new byte[moves.length];
+        int size = 0;
+        seen.put(zobrist.hash, 0);
+
+        // Scratch space for checking cycles
+        int[] touched = new int[moves.length + 2];
+        int[] before = new int[moves.length + 2];
+
+        for (byte m : moves)
+        {
+            zobrist.move(state, m);
+            out[size++] = m;
+
+            int earlier = seen.get(zobrist.hash);
+            if (earlier >= 0 && earlier < size)
+            {
+                // Undo back to the earlier board, remembering what each touched
+                // cell held at the end of the stretch. A cell the empty cell
+                // passes through more than once only counts the first time,
+                // since later it holds whatever an undo left there.
+                LongIntMap recorded = new LongIntMap(size - earlier + 1);
+                touched[0] = state.emptyPos();
+                before[0] = GridState.EMPTY;
+                recorded.put(touched[0], 0);
+                int count = 1;
+                for (int i = size - 1; i >= earlier; i--)
+                {
+                    int cell = state.emptyPos() + state.offset(out[i] ^ 1);
+                    if (recorded.get(cell) < 0)
+                    {
+                        recorded.put(cell, count);
+                        touched[count] = cell;
+                        before[count++] = state.get(cell);
+                    }
+                    state.undo(out[i]);
+                }
+
+                // A real cycle leaves every touched cell as it was
+                boolean same = true;
+                for (int i = 0; i < count && same; i++)
+                {
+                    same = state.get(touched[i]) == before[i];
+                }
+
+                if (same)
+                {
+                    size = earlier;
+                    continue;
+                }
+
+                // A hash collision, so put the moves back
+                for (int i = earlier; i < size; i++)
+                {
+                    state.apply(out[i]);
+                }
+            }
+            seen.put(zobrist.hash, size);
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Swap every window of up to 12 moves for the shortest sequence with the
+     * same effect, as long as that sequence stays on the board
+     * @param start the board the moves start from, which is not changed
+     * @param moves the moves to simplify
+     * @return the moves with shorter windows swapped in
+     */
+    public static byte[] replaceWindows(GridState start, byte[] moves)
+    {
+        HashMap<String, byte[]> shortest = table();
+        int width = start.width();
+        int height = start.height();
+
+        MoveBuffer out = new MoveBuffer();
+        int x = start.emptyPos() % width;
+        int y = start.emptyPos() / width;
+        Effect effect = new Effect(WINDOW);
+
+        int i = 0;
+        while (i < moves.length)
+        {
+            // Try the longest window first
+            byte[] best = null;
+            int replaced = 0;
+            for (int w = Math.min(WINDOW, moves.length - i); w > 1 && best == null; w--)
+            {
+                byte[] candidate = shortest.get(effect.of(moves, i, w));
+                if (candidate != null && candidate.length < w && fits(candidate, x, y, width, height))
+                {
+                    best = candidate;
+                    replaced = w;
+                }
+            }
+
+            if (best == null)
+            {
+                best = new byte[] { moves[i] };
+                replaced = 1;
+            }
+            for (byte m : best)
+            {
+                out.add(m);
+                x += BoardState.dx(m);
+                y += BoardState.dy(m);
+            }
+            i += replaced;
+        }
+        return out.toArray();
+    }
+
+    // Check that a sequence never leaves the board
+    private static boolean fits(byte[] seq, int x, int y, int width, int height)
+    {
+        for (byte m : seq)
+        {
+            x += BoardState.dx(m);
+            y += BoardState.dy(m);
+            if (x < 0 || y < 0 || x >= width || y >= height)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Enumerate every sequence up to TABLE_DEPTH long, shortest first,
+    // and keep the first sequence found for each effect
+    private static synchronized HashMap<String, byte[]> table()
+    {
+        if (table == null)
+        {
+            HashMap<String, byte[]> t = new HashMap<>();
+            Effect effect = new Effect(TABLE_DEPTH);
+            byte[] seq = new byte[TABLE_DEPTH];
+
+            // Windows that change nothing can be dropped completely
+            t.put(effect.of(seq, 0, 0), new byte[0]);
+            for (int length = 1; length <= TABLE_DEPTH; length++)
+            {
+                enumerate(t, effect, seq, 0, length);
+            }
+            table = t;
+        }
+        return table;
+    }
+
+    // Fill in every sequence of the given length that doesn't undo its own last move
+    private static void enumerate(HashMap<String, byte[]> t, Effect effect, byte[] seq, int depth, int length)
+    {
+        if (depth == length)
+        {
+            t.putIfAbsent(effect.of(seq, 0, length), Arrays.copyOf(seq, length));
+            return;
+        }
+        for (int dir = 0; dir < 4; dir++)
+        {
+            if (depth > 0 && dir == (seq[depth - 1] ^ 1))
+            {
+                continue;
+            }
+            seq[depth] = (byte) dir;
+            enumerate(t, effect, seq, depth + 1, length);
+        }
+    }
+
+    // Describes what a sequence does on an endless board: where the empty
+    // cell ends up and where every Tile it moved came from, relative to
+    // where the empty cell started
+    private static class Effect
+    {
+        // Cells the sequence touched and the starting cell of the Tile now in each
+        private final int[] cells;
+        private final int[] origins;
+        private final StringBuilder key = new StringBuilder();
+
+        Effect(int maxLength)
+        {
+            cells = new int[maxLength + 1];
+            origins = new int[maxLength + 1];
+        }
+
+        // Get the effect of moves[from, from + length) as a string key
+        String of(byte[] moves, int from, int length)
+        {
+            // Cells are packed as (x + 64) * 128 + (y + 64) to keep them positive
+            int blank = pack(0, 0);
+            int count = 0;
+            for (int i = from; i < from + length; i++)
+            {
+                int target = blank + BoardState.dx(moves[i]) * 128 + BoardState.dy(moves[i]);
+
+                // The Tile at target slides into the empty cell
+                int origin = target;
+                int t = find(target, count);
+                if (t >= 0)
+                {
+                    origin = origins[t];
+                }
+                else
+                {
+                    t = count;
+                    cells[count++] = target;
+                }
+                int b = find(blank, count);
+                if (b < 0)
+                {
+                    b = count;
+                    cells[count++] = blank;
+                }
+                origins[b] = origin;
+                origins[t] = -1;
+                blank = target;
+            }
+
+            // Sort the moved Tiles by cell so equal effects get equal keys
+            for (int i = 1; i < count; i++)
+            {
+                for (int j = i; j > 0 && cells[j - 1] > cells[j]; j--)
+                {
+                    swap(cells, j);
+                    swap(origins, j);
+                }
+            }
+
+            key.setLength(0);
+            key.append((char) blank);
+            for (int i = 0; i < count; i++)
+            {
+                if (origins[i] != -1 && origins[i] != cells[i])
+                {
+                    key.append((char) cells[i]).append((char) origins[i]);
+                }
+            }
+            return key.toString();
+        }
+
+        private int find(int cell, int count)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                if (cells[i] == cell)
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static void swap(int[] a, int j)
+        {
+            int t = a[j];
+            a[j] = a[j - 1];
+            a[j - 1] = t;
+        }
+
+        private static int pack(int x, int y)
+        {
+            return (x + 64) * 128 + (y + 64);
+        }
+    }
+
+    // A 64 bit hash of a board kept up to date one move at a time, made by
+    // xoring a random looking key for each Tile and the cell it is in
+    private static class Zobrist
+    {
+        long hash;
+        private final int size;
+
+        Zobrist(GridState state)
+        {
+            size = state.size();
+            for (int pos = 0; pos < size; pos++)
+            {
+                hash ^= key(state.get(pos), pos);
+            }
+        }
+
+        // Apply a move to state and update the hash to match
+        void move(GridState state, int dir)
+        {
+            int from = state.emptyPos();
+            int tile = state.apply(dir);
+            int to = state.emptyPos();
+            hash ^= key(tile, to) ^ key(tile, from) ^ key(GridState.EMPTY, from) ^ key(GridState.EMPTY, to);
+        }
+
+        // Keys are computed rather than stored so huge boards don't need a table
+        private long key(int value, int pos)
+        {
+            return BoardState.hash((long) value * size + pos + 1);
+        }
+    }
+
+    /**
+     * Print how much shorter the optimizer makes Solver's 4x4 plans and
+     * ReductionSolver's plans on bigger boards
+     * Usage: java MoveOptimizer [boards] [seed]
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        BoardGenerator generator = new BoardGenerator(seed);
+
+        // Loops that pass through the same cells several times are cycles too
+        for (String pattern : new String[] {"ULDR".repeat(3), "ULLDRR".repeat(5)})
+        {
+            byte[] loop = new byte[pattern.length()];
+            for (int i = 0; i < loop.length; i++)
+            {
+                loop[i] = (byte) "UDLR".indexOf(pattern.charAt(i));
+            }
+            GridState solved = new GridState(5, 5);
+            if (removeCycles(solved, loop).length != 0 || optimize(solved, loop).length != 0)
+            {
+                throw new IllegalStateException("a " + loop.length + " move loop wasn't removed");
+            }
+        }
+
+        long before = 0;
+        long after = 0;
+        for (int i = 0; i < count; i++)
+        {
+            BoardState start = generator.next();
+            byte[] plan = Solver.plan(start, true);
+            before += plan.length;
+            after += check(GridState.of(start), optimize(start, plan));
+        }
+        System.out.printf("Solver 4x4:       %8.1f -> %8.1f moves%n", (double) before / count, (double) after / count);
+
+        for (int side = 4; side <= 10; side += 2)
+        {
+            before = 0;
+            after = 0;
+            for (int i = 0; i < count; i++)
+            {
+                GridState start = generator.nextGrid(side, side);
+                byte[] plan = ReductionSolver.plan(start);
+                before += plan.length;
+                after += check(start, optimize(start, plan));
+            }
+            System.out.printf("Reduction %2dx%-2d:  %8.1f -> %8.1f moves%n", side, side,
+                    (double) before / count, (double) after / count);
+        }
+    }
+
+    // Make sure the moves still solve the board and return how many there are
+    private static int check(GridState start, byte[] moves)
+    {
+        GridState state = start.copy();
+        for (byte m : moves)
+        {
+            if (!state.canMove(m))
+            {
+                throw new IllegalStateException("optimized moves leave the board");
+            }
+            state.apply(m);
+        }
+        if (!state.isSolved())
+        {
+            throw new IllegalStateException("optimized moves don't solve the board");
+        }
+        return moves.length;
+    }
+}
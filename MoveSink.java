@@ -0,0 +1,12 @@
+/**
+ * Somewhere to send moves as they are made, so long solutions never have to
+ * be held in memory all at once
+ */
+public interface MoveSink
+{
+    /**
+     * Take the next move of a solution
+     * @param dir the direction the empty cell moved in, using the constants from BoardState
+     */
+    void add(int dir);
+}
@@ -0,0 +1,435 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IDA* that splits the search tree into subtrees and runs them on a
+ * ForkJoinPool. Idle threads steal subtrees from busy ones, and every
+ * thread shares the bound for the next iteration.
+ *
+ * The moves returned are always the same as IDASolver's: once a subtree
+ * finds a solution, only subtrees that the sequential search would have
+ * reached first keep running.
+ */
+public class ParallelSolver
+{
+    // Same limit as IDASolver
+    private static final int MAX_DEPTH = 128;
+
+    // Default depth to stop splitting the tree at
+    private static final int DEFAULT_SPLIT_DEPTH = 8;
+
+    // Size of the TranspositionTable main tries
+    private static final long TABLE_BYTES = 64L << 20;
+
+    private final Heuristic heuristic;
+    private final ForkJoinPool pool;
+
+    // The same heuristic if it can update its estimate move by move, or null
+    private final IncrementalHeuristic incremental;
+    private final int splitDepth;
+
+    // Lower bounds shared by every thread, or null to not use one
+    private final TranspositionTable table;
+
+    // State shared by every task in the current iteration
+    private int bound;
+    private final AtomicInteger nextBound = new AtomicInteger();
+    private final LongAdder nodes = new LongAdder();
+
+    // Order of the leftmost subtree that found a solution, Long.MAX_VALUE if none
+    private final AtomicLong bestOrder = new AtomicLong();
+    private byte[] bestMoves;
+
+    /**
+     * Create a ParallelSolver using every core and the default heuristic
+     */
+    public ParallelSolver()
+    {
+        this(new ManhattanHeuristic(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a ParallelSolver with its own pool of threads
+     * @param heuristic an admissible heuristic that is safe to share between threads
+     * @param threads   how many threads to search with
+     */
+    public ParallelSolver(Heuristic heuristic, int threads)
+    {
+        this(heuristic, new ForkJoinPool(threads), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Create a ParallelSolver on an existing pool
+     * @param heuristic  an admissible heuristic that is safe to share between threads
+     * @param pool       the pool to run subtrees on
+     * @param splitDepth how deep to keep splitting the tree into separate tasks
+     */
+    public ParallelSolver(Heuristic heuristic, ForkJoinPool pool, int splitDepth)
+    {
+        this(heuristic, pool, splitDepth, null);
+    }
+
+    /**
+     * Create a ParallelSolver on an existing pool whose threads share a TranspositionTable.
+     * The moves found are the same as without the table.
+     * @param heuristic  an admissible heuristic that is safe to share between threads
+     * @param pool       the pool to run subtrees on
+     * @param splitDepth how deep to keep splitting the tree into separate tasks
+     * @param table      where every thread looks up and stores lower bounds, or null to not use one
+     */
+    public ParallelSolver(Heuristic heuristic, ForkJoinPool pool, int splitDepth, TranspositionTable table)
+    {
+        if (splitDepth < 1 || splitDepth > 20)
+        {
+            throw new IllegalArgumentException("splitDepth must be between 1 and 20");
+        }
+        this.heuristic = heuristic;
+        this.incremental = heuristic instanceof IncrementalHeuristic ih ? ih : null;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.table = table;
+    }
+
+    /**
+     * Find a shortest solution for the given board using every thread in the pool.
+     * Only one solve can run on a ParallelSolver at a time.
+     * @param start the board to solve, which is not changed
+     * @return the same moves IDASolver finds, the total nodes expanded
+     * across all threads, and the wall clock time taken
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public synchronized SolveResult solve(BoardState start)
+    {
+        if (!start.isSolvable())
+        {
+            throw new IllegalArgumentException("board is not solvable");
+        }
+
+        long startTime = System.nanoTime();
+        nodes.reset();
+        bestMoves = null;
+        if (table != null)
+        {
+            table.newSearch();
+        }
+
+        bound = estimate(start);
+        while (true)
+        {
+            nextBound.set(Integer.MAX_VALUE);
+            bestOrder.set(Long.MAX_VALUE);
+            pool.invoke(new SubtreeTask(start.copy(), new byte[MAX_DEPTH], 0, -1, 0, 0));
+            if (bestMoves != null)
+            {
+                break;
+            }
+            bound = nextBound.get();
+        }
+
+        return new SolveResult(bestMoves, nodes.sum(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Shut down the threads used by this solver
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    // Keep the first solution in search order
+    // Locks on bestOrder since solve holds the lock on this while searching
+    private void report(long order, byte[] path, int length)
+    {
+        synchronized (bestOrder)
+        {
+            if (order <= bestOrder.get())
+            {
+                bestOrder.set(order);
+                bestMoves = new byte[length];
+                System.arraycopy(path, 0, bestMoves, 0, length);
+            }
+        }
+    }
+
+    // The heuristic, raised to the bound in the table if there is a bigger one
+    private int estimate(BoardState state)
+    {
+        return estimate(state, heuristic.estimate(state));
+    }
+
+    // The heuristic's estimate for a board, raised the same way
+    private int estimate(BoardState state, int base)
+    {
+        int h = base;
+        if (table != null)
+        {
+            h = Math.max(h, table.get(state.packed(), state.zobrist()));
+        }
+        return h;
+    }
+
+    // Lower a shared minimum without locking
+    private static void lower(AtomicInteger target, int value)
+    {
+        int current;
+        while (value < (current = target.get()) && !target.compareAndSet(current, value))
+        {
+        }
+    }
+
+    // A subtree of the search, identified by the moves that lead to it
+    private class SubtreeTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final BoardState state;
+        private final byte[] path;
+        private final int g;
+        private final int prev;
+
+        // The estimate for the board before prev was made
+        private final int parentH;
+
+        // Where this subtree comes in the sequential search order
+        // Each move along the path is a base 5 digit from 1 to 4, padded
+        // with zeros up to the split depth, so parents sort before children
+        private final long order;
+
+        // Nodes counted locally and added to the shared total at the end
+        private long expanded;
+
+        // Length of the solution found by search
+        private int found;
+
+        // The smallest f that went over the bound in the part of the
+        // subtree searched so far, used to work out lower bounds for the table
+        private int frontier;
+
+        SubtreeTask(BoardState state, byte[] path, int g, int prev, int parentH, long order)
+        {
+            this.state = state;
+            this.path = path;
+            this.g = g;
+            this.prev = prev;
+            this.parentH = parentH;
+            this.order = order;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (g < splitDepth)
+            {
+                split();
+            }
+            else if (search(g, prev, parentH, -1) >= 0)
+            {
+                report(order, path, found);
+            }
+            nodes.add(expanded);
+        }
+
+        // Expand this node and fork a task for every child
+        private void split()
+        {
+            expanded++;
+            int h = estimate(state);
+            int f = g + h;
+            if (f > bound)
+            {
+                lower(nextBound, f);
+                return;
+            }
+            if (state.isSolved())
+            {
+                report(order, path, g);
+                return;
+            }
+
+            SubtreeTask[] children = new SubtreeTask[4];
+            int count = 0;
+            int moves = state.moves();
+            long scale = pow5(splitDepth - g - 1);
+            for (int dir = 0; dir < 4; dir++)
+            {
+                if ((moves & (1 << dir)) == 0 || dir == (prev ^ 1))
+                {
+                    continue;
+                }
+                BoardState child = state.copy();
+                child.apply(dir);
+                byte[] childPath = path.clone();
+                childPath[g] = (byte) dir;
+                children[count++] = new SubtreeTask(child, childPath, g + 1, dir, h, order + (dir + 1) * scale);
+            }
+
+            if (count > 0)
+            {
+                invokeAll(Arrays.copyOf(children, count));
+            }
+        }
+
+        // Sequential IDA* below the split depth, same as IDASolver
+        // parentH is the estimate for the board before the last move, and
+        // base is the heuristic's own estimate for this board, or -1 if it
+        // hasn't been worked out
+        private int search(int depth, int last, int parentH, int base)
+        {
+            // Give up if a subtree earlier in the order already has a solution
+            if (bestOrder.get() < order)
+            {
+                return -1;
+            }
+
+            expanded++;
+            if (base < 0)
+            {
+                base = heuristic.estimate(state);
+            }
+            int h = estimate(state, base);
+            int f = depth + h;
+            if (f > bound)
+            {
+                lower(nextBound, f);
+                frontier = Math.min(frontier, f);
+                return -1;
+            }
+            if (state.isSolved())
+            {
+                found = depth;
+                return depth;
+            }
+
+            int outerFrontier = frontier;
+            frontier = Integer.MAX_VALUE;
+
+            int moves = state.moves();
+            for (int dir = 0; dir < 4; dir++)
+            {
+                if ((moves & (1 << dir)) == 0 || dir == (last ^ 1))
+                {
+                    continue;
+                }
+
+                // Only the Tile that slides changes, so update the estimate for it
+                int childBase = incremental != null ? base + incremental.delta(state, dir) : -1;
+                state.apply(dir);
+                path[depth] = (byte) dir;
+                int result = search(depth + 1, dir, h, childBase);
+                state.undo(dir);
+
+                if (result >= 0)
+                {
+                    return result;
+                }
+            }
+
+            // Only a subtree that was searched all the way gives a lower bound,
+            // and one earlier in the order finding a solution cuts this one short
+            if (table != null && bestOrder.get() >= order)
+            {
+                int below = frontier;
+                if (last != -1)
+                {
+                    below = Math.min(below, depth + 1 + parentH);
+                }
+                table.put(state.packed(), state.zobrist(), below - depth, bound - depth);
+            }
+            frontier = Math.min(outerFrontier, frontier);
+            return -1;
+        }
+    }
+
+    // 5 to the power of n
+    private static long pow5(int n)
+    {
+        long p = 1;
+        for (int i = 0; i < n; i++)
+        {
+            p *= 5;
+        }
+        return p;
+    }
+
+    /**
+     * Compare the speed of different thread counts on a fixed set of boards
+     * and check that every thread count finds the same moves as IDASolver
+     * Usage: java ParallelSolver [boards] [seed]
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Heuristic heuristic = PatternDatabaseHeuristic.defaultHeuristic();
+
+        // Scramble solved boards with a fixed seed
+        Random rand = new Random(seed);
+        BoardState[] boards = new BoardState[count];
+        for (int i = 0; i < count; i++)
+        {
+            BoardState s = new BoardState();
+            int prev = -1;
+            for (int m = 0; m < 200; m++)
+            {
+                int dir;
+                do
+                {
+                    dir = rand.nextInt(4);
+                } while (!s.canMove(dir) || dir == (prev ^ 1));
+                s.apply(dir);
+                prev = dir;
+            }
+            boards[i] = s;
+        }
+
+        // Sequential baseline
+        IDASolver sequential = new IDASolver(heuristic);
+        String[] expected = new String[count];
+        long baseline = 0;
+        for (int i = 0; i < count; i++)
+        {
+            SolveResult r = sequential.solve(boards[i]);
+            expected[i] = r.movesString();
+            baseline += r.nanos();
+        }
+        System.out.printf("sequential: %.1f ms%n", baseline / 1e6);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            run(heuristic, threads, null, boards, expected, baseline);
+        }
+
+        // Again with every thread sharing a TranspositionTable
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            TranspositionTable table = new TranspositionTable(TABLE_BYTES);
+            run(heuristic, threads, table, boards, expected, baseline);
+            System.out.println("            " + table);
+        }
+    }
+
+    // Solve every board with one configuration and print how it compares to the baseline
+    private static void run(Heuristic heuristic, int threads, TranspositionTable table,
+                            BoardState[] boards, String[] expected, long baseline)
+    {
+        ParallelSolver solver = new ParallelSolver(heuristic, new ForkJoinPool(threads), DEFAULT_SPLIT_DEPTH, table);
+        long total = 0;
+        boolean same = true;
+        for (int i = 0; i < boards.length; i++)
+        {
+            SolveResult r = solver.solve(boards[i]);
+            total += r.nanos();
+            same &= r.movesString().equals(expected[i]);
+        }
+        solver.shutdown();
+        System.out.printf("%2d threads%s: %.1f ms, speedup %.2fx, %s%n", threads, table == null ? "" : " + table",
+                total / 1e6, (double) baseline / total, same ? "same moves" : "DIFFERENT MOVES");
+    }
+}
@@ -0,0 +1,625 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * A table of the exact number of moves it takes to put a group of Tiles
+ * into place, counting only moves of those Tiles. Because only the pattern's
+ * own moves are counted, the values of disjoint patterns can be added
+ * together and still never overestimate.
+ *
+ * The table is indexed by the positions of the pattern Tiles, ranked as a
+ * partial permutation of the 16 cells. Files store a CRC-32 of the table,
+ * which verify checks.
+ *
+ * Tables can be compressed to 4 or 2 bits per entry. Both keep the number
+ * of moves with the empty cell ignored, where any pattern Tile can slide
+ * into any free neighbor, mod 3. Each slide changes that by exactly 1, so
+ * the change for a move comes from the two entries alone, and a full value
+ * is found by stepping to the neighbor one move closer until solved. The
+ * byte table's moves depend on where the empty cell is, so it can jump by
+ * 3 or more in one move and can't be stored mod 3 itself. NIBBLE also
+ * keeps how much bigger the byte table's value is, which is always even,
+ * in steps of 2 up to 6, so it is nearly as strong; TWO_BIT is weaker.
+ */
+public class PatternDatabase
+{
+    /**
+     * How the distances are stored
+     */
+    public enum Format
+    {
+        // One byte per arrangement holding the distance
+        BYTE(8),
+
+        // The distance with the empty cell ignored mod 3 in the low 2 bits,
+        // and half of how much bigger the distance is, up to 3, in the high 2
+        NIBBLE(4),
+
+        // The distance with the empty cell ignored mod 3
+        TWO_BIT(2);
+
+        private final int bits;
+
+        Format(int bits)
+        {
+            this.bits = bits;
+        }
+
+        /**
+         * Get the size of a table stored in this format
+         * @param entries the number of arrangements
+         * @return the number of bytes the table takes
+         */
+        public long bytes(long entries)
+        {
+            return (entries * bits + 7) / 8;
+        }
+    }
+
+    // Marks the start of a pattern database file, "PDB3"
+    private static final int MAGIC = 0x50444233;
+
+    // Files written before the format was added, always BYTE, "PDB2"
+    private static final int MAGIC_NO_FORMAT = 0x50444232;
+
+    // Files written before the checksum was added, "PDB1"
+    private static final int MAGIC_NO_CHECKSUM = 0x50444231;
+
+    private static final Format[] FORMATS = Format.values();
+
+    // Arrangements each thread takes at a time when compressing
+    private static final int CHUNK = 1 << 16;
+
+    // Cells in the first and last columns, used when flood filling
+    private static final int FIRST_COLUMN = 0x1111;
+    private static final int LAST_COLUMN = 0x8888;
+
+    // The Tile values in this pattern
+    private final int[] tiles;
+
+    // slot[value] is the index of value in tiles, or -1 if it isn't in the pattern
+    private final int[] slot;
+
+    // One distance per ranked arrangement of the pattern, stored in format
+    private final Format format;
+    private final ByteBuffer table;
+
+    // Where the table starts inside the buffer
+    private final int offset;
+
+    // The checksum stored with the table, or -1 if there isn't one
+    private final long storedChecksum;
+
+    // The rank of the solved arrangement
+    private final int goalRank;
+
+    PatternDatabase(int[] tiles, ByteBuffer table, int offset)
+    {
+        this(tiles, Format.BYTE, table, offset, -1);
+    }
+
+    private PatternDatabase(int[] tiles, Format format, ByteBuffer table, int offset, long storedChecksum)
+    {
+        this.tiles = tiles;
+        this.format = format;
+        this.table = table;
+        this.offset = offset;
+        this.storedChecksum = storedChecksum;
+        this.goalRank = goalRank(tiles);
+        this.slot = new int[BoardState.SIZE];
+        Arrays.fill(slot, -1);
+        for (int i = 0; i < tiles.length; i++)
+        {
+            slot[tiles[i]] = i;
+        }
+    }
+
+    /**
+     * Get the Tile values in this pattern
+     * @return a copy of the pattern's Tile values
+     */
+    public int[] tiles()
+    {
+        return tiles.clone();
+    }
+
+    /**
+     * Get how the distances are stored
+     * @return the format of the table
+     */
+    public Format format()
+    {
+        return format;
+    }
+
+    /**
+     * Get the number of entries in this pattern database
+     * @return the number of arrangements of the pattern Tiles
+     */
+    public int size()
+    {
+        return size(tiles.length);
+    }
+
+    /**
+     * Look up the number of pattern moves needed to solve a board
+     * @param state the board to look up
+     * @return a lower bound on the moves of this pattern's Tiles
+     */
+    public int lookup(BoardState state)
+    {
+        return lookupRank(rank(positions(state), tiles.length));
+    }
+
+    /**
+     * Look up how much sliding one Tile changes the pattern moves needed
+     * @param state the board before the move, which is not changed
+     * @param from  the cell of the Tile that slides
+     * @param to    the cell it slides into
+     * @return the pattern moves after the move minus those before, which
+     * is 0 if the Tile isn't in this pattern
+     */
+    public int lookupDelta(BoardState state, int from, int to)
+    {
+        int s = slot[state.get(from)];
+        if (s < 0)
+        {
+            return 0;
+        }
+        long positions = positions(state);
+        long moved = (positions & ~(0xFL << (s << 2))) | ((long) to << (s << 2));
+        int before = rank(positions, tiles.length);
+        int after = rank(moved, tiles.length);
+        if (format == Format.BYTE)
+        {
+            return lookupRank(after) - lookupRank(before);
+        }
+
+        // With the empty cell ignored every slide is exactly one move closer or further
+        int fieldBefore = field(before);
+        int fieldAfter = field(after);
+        int delta = (fieldAfter & 3) == ((fieldBefore & 3) + 1) % 3 ? 1 : -1;
+        return delta + ((fieldAfter >>> 2) - (fieldBefore >>> 2)) * 2;
+    }
+
+    // Pack the position of each pattern Tile, 4 bits each
+    private long positions(BoardState state)
+    {
+        long positions = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int s = slot[state.get(pos)];
+            if (s >= 0)
+            {
+                positions |= (long) pos << (s << 2);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Look up the distance stored for a ranked arrangement. For compressed
+     * formats this walks to the solved arrangement, so is much slower than
+     * lookupDelta.
+     * @param rank the rank of the pattern Tiles' positions
+     * @return the number of pattern moves to solve that arrangement
+     */
+    public int lookupRank(int rank)
+    {
+        return switch (format)
+        {
+            case BYTE -> table.get(offset + rank) & 0xFF;
+            case NIBBLE -> descend(rank) + (field(rank) >>> 2) * 2;
+            case TWO_BIT -> descend(rank);
+        };
+    }
+
+    // The 4 or 2 bits stored for an arrangement in a compressed table
+    private int field(int rank)
+    {
+        if (format == Format.NIBBLE)
+        {
+            return (table.get(offset + (rank >>> 1)) >>> ((rank & 1) << 2)) & 0xF;
+        }
+        return (table.get(offset + (rank >>> 2)) >>> ((rank & 3) << 1)) & 3;
+    }
+
+    // Moves to solve an arrangement with the empty cell ignored, from a
+    // compressed table. Every arrangement but the solved one has a neighbor
+    // one move closer, and as neighbors are one move apart it is the only
+    // one whose value is one less mod 3, so step to it until solved.
+    private int descend(int rank)
+    {
+        int k = tiles.length;
+        long positions = unrank(rank, k);
+        int steps = 0;
+        while (rank != goalRank)
+        {
+            int closer = ((field(rank) & 3) + 2) % 3;
+            int free = free(positions, k);
+            int next = -1;
+            for (int i = 0; i < k && next < 0; i++)
+            {
+                int pos = (int) (positions >>> (i << 2)) & 0xF;
+                int targets = neighbors(1 << pos) & free;
+                while (targets != 0)
+                {
+                    int target = Integer.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+
+                    long moved = (positions & ~(0xFL << (i << 2))) | ((long) target << (i << 2));
+                    int r = rank(moved, k);
+                    if ((field(r) & 3) == closer)
+                    {
+                        positions = moved;
+                        next = r;
+                        break;
+                    }
+                }
+            }
+            if (next < 0)
+            {
+                throw new IllegalStateException("pattern database is corrupt");
+            }
+            rank = next;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Build a pattern database by searching backwards from the solved board on every core
+     * @param tiles the Tile values in the pattern
+     * @return a new in-memory pattern database
+     * @throws IllegalArgumentException if the pattern is invalid or too large
+     */
+    public static PatternDatabase build(int... tiles)
+    {
+        return new PatternDatabaseBuilder(Runtime.getRuntime().availableProcessors()).build(tiles);
+    }
+
+    /**
+     * Store this pattern database in a smaller format
+     * @param format the format to store the distances in
+     * @return a new in-memory pattern database, or this one if it is already in that format
+     * @throws IllegalStateException if this database isn't stored as BYTE
+     */
+    public PatternDatabase compress(Format format)
+    {
+        if (format == this.format)
+        {
+            return this;
+        }
+        if (this.format != Format.BYTE)
+        {
+            throw new IllegalStateException("only BYTE tables can be compressed");
+        }
+
+        int size = size();
+        byte[] ignored = emptyIgnored(tiles);
+        byte[] packed = new byte[(int) format.bytes(size)];
+        for (int rank = 0; rank < size; rank++)
+        {
+            int field = ignored[rank] % 3;
+            if (format == Format.NIBBLE)
+            {
+                field |= Math.min((lookupRank(rank) - ignored[rank]) / 2, 3) << 2;
+                packed[rank >>> 1] |= (byte) (field << ((rank & 1) << 2));
+            }
+            else
+            {
+                packed[rank >>> 2] |= (byte) (field << ((rank & 3) << 1));
+            }
+        }
+        return new PatternDatabase(tiles.clone(), format, ByteBuffer.wrap(packed), 0, -1);
+    }
+
+    // Moves to solve every arrangement with the empty cell ignored, by a
+    // breadth first search from the solved arrangement that scans the whole
+    // table once per layer on every core
+    private static byte[] emptyIgnored(int[] tiles)
+    {
+        int k = tiles.length;
+        byte[] distance = new byte[size(k)];
+        Arrays.fill(distance, (byte) -1);
+        distance[goalRank(tiles)] = 0;
+
+        int chunks = (distance.length + CHUNK - 1) / CHUNK;
+        for (int depth = 0; ; depth++)
+        {
+            // Threads that reach the same arrangement all write the same depth
+            int d = depth;
+            long found = IntStream.range(0, chunks).parallel().mapToLong(c ->
+            {
+                long count = 0;
+                int end = Math.min(distance.length, (c + 1) * CHUNK);
+                for (int rank = c * CHUNK; rank < end; rank++)
+                {
+                    if (distance[rank] != d)
+                    {
+                        continue;
+                    }
+                    long positions = unrank(rank, k);
+                    int free = free(positions, k);
+                    for (int i = 0; i < k; i++)
+                    {
+                        int pos = (int) (positions >>> (i << 2)) & 0xF;
+                        int targets = neighbors(1 << pos) & free;
+                        while (targets != 0)
+                        {
+                            int target = Integer.numberOfTrailingZeros(targets);
+                            targets &= targets - 1;
+
+                            int r = rank((positions & ~(0xFL << (i << 2))) | ((long) target << (i << 2)), k);
+                            if (distance[r] == -1)
+                            {
+                                distance[r] = (byte) (d + 1);
+                                count++;
+                            }
+                        }
+                    }
+                }
+                return count;
+            }).sum();
+
+            if (found == 0)
+            {
+                return distance;
+            }
+        }
+    }
+
+    /**
+     * Get the CRC-32 of the stored table
+     * @return the checksum, which only depends on the distances stored and the format
+     */
+    public long checksum()
+    {
+        ByteBuffer body = table.duplicate();
+        body.position(offset);
+        body.limit(offset + (int) format.bytes(size()));
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    /**
+     * Check the table against the checksum stored in its file. This reads
+     * the whole table, so it is left to the caller rather than done by open.
+     * @return false if the table was read from a file whose checksum doesn't
+     * match, true otherwise, including for files written without one
+     */
+    public boolean verify()
+    {
+        return storedChecksum < 0 || storedChecksum == checksum();
+    }
+
+    /**
+     * Write this pattern database to a file so it can be opened later
+     * @param file the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(13 + tiles.length).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(tiles.length);
+        header.putInt((int) checksum());
+        header.put((byte) format.ordinal());
+        for (int t : tiles)
+        {
+            header.put((byte) t);
+        }
+        header.flip();
+
+        ByteBuffer body = table.duplicate();
+        body.position(offset);
+        body.limit(offset + (int) format.bytes(size()));
+
+        // Write to a temporary file first so a half written table is never opened
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (header.hasRemaining())
+            {
+                ch.write(header);
+            }
+            while (body.hasRemaining())
+            {
+                ch.write(body);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Open a pattern database file by mapping it into memory. The table is
+     * paged in lazily and shared with any other process mapping the same file.
+     * @param file the file to open
+     * @return the pattern database stored in the file
+     * @throws IOException if the file can't be read or isn't a pattern database
+     */
+    public static PatternDatabase open(Path file) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int magic = buffer.remaining() < 13 ? 0 : buffer.getInt(0);
+            if (magic != MAGIC && magic != MAGIC_NO_FORMAT && magic != MAGIC_NO_CHECKSUM)
+            {
+                throw new IOException(file + " is not a pattern database");
+            }
+
+            int k = buffer.getInt(4);
+            if (k < 1 || k > BoardState.SIZE - 1)
+            {
+                throw new IOException(file + " has an invalid pattern size");
+            }
+            int start = magic == MAGIC ? 13 : magic == MAGIC_NO_FORMAT ? 12 : 8;
+            long checksum = magic == MAGIC_NO_CHECKSUM ? -1 : buffer.getInt(8) & 0xFFFFFFFFL;
+            Format format = Format.BYTE;
+            if (magic == MAGIC)
+            {
+                int f = buffer.get(12);
+                if (f < 0 || f >= FORMATS.length)
+                {
+                    throw new IOException(file + " has an unknown format");
+                }
+                format = FORMATS[f];
+            }
+
+            int offset = start + k;
+            if (buffer.capacity() - offset != format.bytes(size(k)))
+            {
+                throw new IOException(file + " is truncated");
+            }
+            int[] tiles = new int[k];
+            for (int i = 0; i < k; i++)
+            {
+                tiles[i] = buffer.get(start + i);
+            }
+            validate(tiles);
+            return new PatternDatabase(tiles, format, buffer, offset, checksum);
+        }
+    }
+
+    /**
+     * Open a BYTE pattern database file, building and writing it first if it
+     * doesn't exist yet
+     * @param file  the file to open
+     * @param tiles the Tile values in the pattern
+     * @return the pattern database stored in the file
+     * @throws IOException if the file can't be read or written
+     */
+    public static PatternDatabase openOrBuild(Path file, int... tiles) throws IOException
+    {
+        return openOrBuild(file, Format.BYTE, tiles);
+    }
+
+    /**
+     * Open a pattern database file, building, compressing and writing it
+     * first if it doesn't exist yet
+     * @param file   the file to open
+     * @param format the format the file should be in
+     * @param tiles  the Tile values in the pattern
+     * @return the pattern database stored in the file
+     * @throws IOException if the file can't be read or written
+     */
+    public static PatternDatabase openOrBuild(Path file, Format format, int... tiles) throws IOException
+    {
+        if (!Files.exists(file))
+        {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null)
+            {
+                Files.createDirectories(dir);
+            }
+            build(tiles).compress(format).write(file);
+        }
+
+        PatternDatabase db = open(file);
+        if (!Arrays.equals(db.tiles, tiles))
+        {
+            throw new IOException(file + " holds a different pattern");
+        }
+        if (db.format != format)
+        {
+            throw new IOException(file + " is stored as " + db.format + ", not " + format);
+        }
+        return db;
+    }
+
+    // Make sure the pattern is a non-empty set of distinct Tile values
+    static void validate(int[] tiles)
+    {
+        if (tiles.length == 0 || tiles.length >= BoardState.SIZE)
+        {
+            throw new IllegalArgumentException("a pattern must have between 1 and 15 tiles");
+        }
+        int seen = 0;
+        for (int t : tiles)
+        {
+            if (t < 1 || t >= BoardState.SIZE || (seen & (1 << t)) != 0)
+            {
+                throw new IllegalArgumentException("pattern tiles must be distinct values from 1 to 15");
+            }
+            seen |= 1 << t;
+        }
+    }
+
+    // Number of ways to place k Tiles on the board, 16! / (16 - k)!
+    static int size(int k)
+    {
+        return (int) Permutation.arrangements(BoardState.SIZE, k);
+    }
+
+    // The rank of the arrangement with every pattern Tile in place
+    private static int goalRank(int[] tiles)
+    {
+        long goal = 0;
+        for (int i = 0; i < tiles.length; i++)
+        {
+            goal |= (long) (tiles[i] - 1) << (i << 2);
+        }
+        return rank(goal, tiles.length);
+    }
+
+    // Rank k positions packed 4 bits each as a partial permutation of the cells
+    static int rank(long positions, int k)
+    {
+        return (int) Permutation.rankPacked(positions, k, BoardState.SIZE);
+    }
+
+    // Reverse of rank
+    static long unrank(int rank, int k)
+    {
+        return Permutation.unrankPacked(rank, k, BoardState.SIZE);
+    }
+
+    // Bitmask of the cells not covered by a pattern Tile
+    static int free(long positions, int k)
+    {
+        int occupied = 0;
+        for (int i = 0; i < k; i++)
+        {
+            occupied |= 1 << ((positions >>> (i << 2)) & 0xF);
+        }
+        return ~occupied & 0xFFFF;
+    }
+
+    // Cells next to any cell in mask
+    static int neighbors(int mask)
+    {
+        return ((mask << BoardState.WIDTH) | (mask >>> BoardState.WIDTH)
+                | ((mask << 1) & ~FIRST_COLUMN) | ((mask >>> 1) & ~LAST_COLUMN)) & 0xFFFF;
+    }
+
+    // All free cells the empty cell can reach from start
+    static int fill(int start, int free)
+    {
+        int mask = 1 << start;
+        int last;
+        do
+        {
+            last = mask;
+            mask |= neighbors(mask) & free;
+        } while (mask != last);
+        return mask;
+    }
+
+    // The lowest cell of the region the empty cell can reach from start
+    static int region(int start, int free)
+    {
+        return Integer.numberOfTrailingZeros(fill(start, free));
+    }
+}
@@ -0,0 +1,320 @@
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds pattern databases with a breadth first search backwards from the
+ * solved board, one layer at a time, spread across several threads.
+ *
+ * A search state is an arrangement of the pattern Tiles plus the region of
+ * free cells the empty cell is in, since moving the empty cell within its
+ * region costs nothing. Every state gets 2 bits in one packed long array:
+ * not seen yet, in an even layer, in an odd layer, or expanded. For each
+ * layer, the threads claim blocks of the array, expand every state in the
+ * layer and mark the states it leads to for the next layer. The marks are
+ * set with a compare and set on the long holding them, so exactly one
+ * thread claims each new state and no locks are taken. Expanded states are
+ * marked as such, so each state is expanded exactly once and the marks only
+ * need to tell the current layer from the next.
+ *
+ * The first time any state of an arrangement is reached, that depth goes
+ * into the table. Building 8 Tiles needs about 2.6 GB: 2 bits for each of
+ * the 8.3 billion states plus the 519 MB table.
+ */
+public class PatternDatabaseBuilder
+{
+    // The largest pattern whose ranks fit in an int
+    public static final int MAX_TILES = 8;
+
+    // The 2 bit marks for a state
+    private static final int EVEN = 0;
+    private static final int ODD = 1;
+    private static final int EXPANDED = 2;
+    private static final int UNSEEN = 3;
+
+    // The low bit of every mark in a long
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    // Longs of marks each thread claims at a time, 128K states
+    private static final int BLOCK = 1 << 12;
+
+    // Atomic access to the longs of the marks array
+    private static final VarHandle MARKS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int threads;
+    private final PrintStream log;
+
+    /**
+     * Create a PatternDatabaseBuilder that prints nothing
+     * @param threads how many threads to search with
+     * @throws IllegalArgumentException if threads isn't positive
+     */
+    public PatternDatabaseBuilder(int threads)
+    {
+        this(threads, null);
+    }
+
+    /**
+     * Create a PatternDatabaseBuilder
+     * @param threads how many threads to search with
+     * @param log     prints a line for each layer and the checksum of the table, or null to print nothing
+     * @throws IllegalArgumentException if threads isn't positive
+     */
+    public PatternDatabaseBuilder(int threads, PrintStream log)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        this.log = log;
+    }
+
+    /**
+     * Build a pattern database
+     * @param tiles the Tile values in the pattern
+     * @return a new in-memory pattern database
+     * @throws IllegalArgumentException if the pattern is invalid or has more than MAX_TILES Tiles
+     */
+    public PatternDatabase build(int... tiles)
+    {
+        PatternDatabase.validate(tiles);
+        if (tiles.length > MAX_TILES)
+        {
+            throw new IllegalArgumentException("patterns of more than " + MAX_TILES + " tiles are too large to build");
+        }
+
+        Search search = new Search(tiles);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long time = System.nanoTime();
+        try
+        {
+            long total = 1;
+            long layer = 1;
+            for (int depth = 0; layer > 0; depth++)
+            {
+                if (log != null)
+                {
+                    log.printf("depth %2d: %,14d states %,14d total %8.1f s%n",
+                            depth, layer, total, (System.nanoTime() - time) / 1e9);
+                }
+
+                search.start(depth);
+                List<Callable<Long>> workers = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++)
+                {
+                    workers.add(search::expand);
+                }
+                layer = 0;
+                for (Future<Long> found : pool.invokeAll(workers))
+                {
+                    layer += found.get();
+                }
+                total += layer;
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while building a pattern database", ex);
+        }
+        catch (ExecutionException ex)
+        {
+            if (ex.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause)
+            {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        PatternDatabase db = new PatternDatabase(tiles.clone(), ByteBuffer.wrap(search.table), 0);
+        if (log != null)
+        {
+            log.printf("built %s in %.1f s with %d threads, checksum %08x%n", PatternDatabaseHeuristic.fileName(tiles),
+                    (System.nanoTime() - time) / 1e9, threads, db.checksum());
+        }
+        return db;
+    }
+
+    // Everything one build shares between its threads
+    private static class Search
+    {
+        private final int k;
+        private final byte[] table;
+        private final long[] marks;
+
+        // The layer being expanded and the next block of marks to claim
+        private int depth;
+        private final AtomicLong cursor = new AtomicLong();
+
+        Search(int[] tiles)
+        {
+            k = tiles.length;
+            table = new byte[PatternDatabase.size(k)];
+            Arrays.fill(table, (byte) -1);
+
+            // 32 marks to a long, all UNSEEN
+            long states = (long) table.length * BoardState.SIZE;
+            marks = new long[(int) (states >>> 5)];
+            Arrays.fill(marks, -1L);
+
+            // Start from the solved board with the empty cell in the bottom right
+            long goal = 0;
+            for (int i = 0; i < k; i++)
+            {
+                goal |= (long) (tiles[i] - 1) << (i << 2);
+            }
+            int rank = PatternDatabase.rank(goal, k);
+            int region = PatternDatabase.region(BoardState.SIZE - 1, PatternDatabase.free(goal, k));
+            claim((long) rank * BoardState.SIZE + region, EVEN);
+            table[rank] = 0;
+        }
+
+        // Get ready to expand a layer. The threads expanding the last one
+        // have all finished, so there is no race with them.
+        void start(int depth)
+        {
+            this.depth = depth;
+            cursor.set(0);
+        }
+
+        // Claim blocks and expand every state in the current layer in them
+        // Returns the number of states claimed for the next layer
+        long expand()
+        {
+            int current = (depth & 1) == 0 ? EVEN : ODD;
+            int next = current ^ 1;
+            long pattern = current == EVEN ? 0 : LOW_BITS;
+            long found = 0;
+
+            // Neighboring states usually share an arrangement
+            int lastRank = -1;
+            long positions = 0;
+            int free = 0;
+
+            long claimed;
+            while ((claimed = cursor.getAndAdd(BLOCK)) < marks.length)
+            {
+                int end = (int) Math.min(marks.length, claimed + BLOCK);
+                for (int w = (int) claimed; w < end; w++)
+                {
+                    // Only this thread changes marks of the current layer in
+                    // its block, so a plain read finds all of them
+                    long z = ~(marks[w] ^ pattern);
+                    z &= (z >>> 1) & LOW_BITS;
+                    while (z != 0)
+                    {
+                        int bit = Long.numberOfTrailingZeros(z);
+                        z &= z - 1;
+
+                        long state = ((long) w << 5) | (bit >>> 1);
+                        int rank = (int) (state / BoardState.SIZE);
+                        if (rank != lastRank)
+                        {
+                            positions = PatternDatabase.unrank(rank, k);
+                            free = PatternDatabase.free(positions, k);
+                            lastRank = rank;
+                        }
+                        int reachable = PatternDatabase.fill((int) (state % BoardState.SIZE), free);
+
+                        // Try sliding every pattern Tile into the reachable region
+                        for (int i = 0; i < k; i++)
+                        {
+                            int pos = (int) (positions >>> (i << 2)) & 0xF;
+                            int targets = PatternDatabase.neighbors(1 << pos) & reachable;
+                            while (targets != 0)
+                            {
+                                int target = Integer.numberOfTrailingZeros(targets);
+                                targets &= targets - 1;
+
+                                long moved = (positions & ~(0xFL << (i << 2))) | ((long) target << (i << 2));
+                                int newFree = (free | (1 << pos)) & ~(1 << target);
+                                int child = PatternDatabase.rank(moved, k);
+                                if (claim((long) child * BoardState.SIZE + PatternDatabase.region(pos, newFree), next))
+                                {
+                                    found++;
+
+                                    // Every thread writing here this layer writes the same depth
+                                    if (table[child] == -1)
+                                    {
+                                        table[child] = (byte) (depth + 1);
+                                    }
+                                }
+                            }
+                        }
+
+                        MARKS.getAndBitwiseXor(marks, w, (long) (current ^ EXPANDED) << bit);
+                    }
+                }
+            }
+            return found;
+        }
+
+        // Mark a state as being in a layer if it hasn't been seen yet
+        // Returns true if this call is the one that marked it
+        private boolean claim(long state, int layer)
+        {
+            int w = (int) (state >>> 5);
+            int shift = (int) (state & 31) << 1;
+            long word = marks[w];
+            while (((word >>> shift) & 3) == UNSEEN)
+            {
+                long witness = (long) MARKS.compareAndExchange(marks, w, word, word ^ ((long) (UNSEEN ^ layer) << shift));
+                if (witness == word)
+                {
+                    return true;
+                }
+                word = witness;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Time building a pattern on 1, 2, 4 and 8 threads and check every
+     * build gives the same table
+     * Usage: java PatternDatabaseBuilder [tiles...]
+     * @param args the Tile values in the pattern, 1 5 6 9 10 13 by default
+     */
+    public static void main(String[] args)
+    {
+        int[] tiles = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : PatternDatabaseHeuristic.PARTITION_663[0];
+
+        long checksum = -1;
+        for (int threads = 1; threads <= 8; threads *= 2)
+        {
+            PatternDatabase db = new PatternDatabaseBuilder(threads, threads == 1 ? System.out : null).build(tiles);
+            if (checksum >= 0 && db.checksum() != checksum)
+            {
+                System.out.printf("%d threads built a different table, checksum %08x%n", threads, db.checksum());
+                System.exit(1);
+            }
+            checksum = db.checksum();
+
+            // Time a second build now that the code is compiled
+            long time = System.nanoTime();
+            new PatternDatabaseBuilder(threads).build(tiles);
+            System.out.printf("%d threads: %.2f s%n", threads, (System.nanoTime() - time) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+public class PatternDatabaseHeuristic implements IncrementalHeuristic
+{
+    // Three patterns of 6, 6 and 3 Tiles, small enough to build in seconds
+    public static final int[][] PARTITION_663 = {
+        {1, 5, 6, 9, 10, 13},
+        {7, 8, 11, 12, 14, 15},
+        {2, 3, 4}
+    };
+
+    // Two patterns of 7 and 8 Tiles, much stronger but takes far more memory
+    public static final int[][] PARTITION_78 = {
+        {1, 2, 3, 4, 5, 6, 7, 8},
+        {9, 10, 11, 12, 13, 14, 15}
+    };
+
+    // Where the default tables are kept
+    private static final Path DEFAULT_DIRECTORY = Path.of("pdb");
+
+    // How far the empty cell's index changes for each direction
+    private static final int[] OFFSET = {-BoardState.WIDTH, BoardState.WIDTH, -1, 1};
+
+    // Loaded the first time defaultHeuristic() is called
+    private static PatternDatabaseHeuristic defaultHeuristic;
+
+    private final PatternDatabase[] databases;
+
+    // owner[v] is the database holding Tile value v, or null if none does
+    private final PatternDatabase[] owner = new PatternDatabase[BoardState.SIZE];
+
+    /**
+     * Create a heuristic that adds up disjoint pattern databases
+     * @param databases the pattern databases to add, which can't share Tiles
+     * @throws IllegalArgumentException if two databases share a Tile
+     */
+    public PatternDatabaseHeuristic(PatternDatabase... databases)
+    {
+        int seen = 0;
+        for (PatternDatabase db : databases)
+        {
+            for (int t : db.tiles())
+            {
+                if ((seen & (1 << t)) != 0)
+                {
+                    throw new IllegalArgumentException("pattern databases must not share tiles");
+                }
+                seen |= 1 << t;
+                owner[t] = db;
+            }
+        }
+        this.databases = databases.clone();
+    }
+
+    /**
+     * Open the pattern databases for a partition from a directory, building
+     * and writing any that are missing
+     * @param directory where the pattern database files are kept
+     * @param partition the Tile values in each pattern
+     * @return a heuristic adding up the partition's pattern databases
+     * @throws IOException if a file can't be read or written
+     */
+    public static PatternDatabaseHeuristic load(Path directory, int[][] partition) throws IOException
+    {
+        return load(directory, partition, PatternDatabase.Format.BYTE);
+    }
+
+    /**
+     * Open the pattern databases for a partition stored in a format from a
+     * directory, building and writing any that are missing
+     * @param directory where the pattern database files are kept
+     * @param partition the Tile values in each pattern
+     * @param format    how the tables are stored
+     * @return a heuristic adding up the partition's pattern databases
+     * @throws IOException if a file can't be read or written
+     */
+    public static PatternDatabaseHeuristic load(Path directory, int[][] partition, PatternDatabase.Format format)
+            throws IOException
+    {
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+        for (int i = 0; i < partition.length; i++)
+        {
+            Path file = directory.resolve(fileName(partition[i], format));
+            databases[i] = PatternDatabase.openOrBuild(file, format, partition[i]);
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+    /**
+     * Get the 6-6-3 pattern databases from the pdb directory, building them
+     * the first time they are needed
+     * @return the shared default pattern database heuristic
+     * @throws UncheckedIOException if the tables can't be read or written
+     */
+    public static synchronized PatternDatabaseHeuristic defaultHeuristic()
+    {
+        if (defaultHeuristic == null)
+        {
+            try
+            {
+                defaultHeuristic = load(DEFAULT_DIRECTORY, PARTITION_663);
+            }
+            catch (IOException ex)
+            {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return defaultHeuristic;
+    }
+
+    /**
+     * Get the file name a BYTE pattern is stored under
+     * @param tiles the Tile values in the pattern
+     * @return a name like pdb-1-5-6.bin
+     */
+    public static String fileName(int[] tiles)
+    {
+        return fileName(tiles, PatternDatabase.Format.BYTE);
+    }
+
+    /**
+     * Get the file name a pattern is stored under in a format
+     * @param tiles  the Tile values in the pattern
+     * @param format how the table is stored
+     * @return a name like pdb-1-5-6.bin, pdb-1-5-6-nibble.bin or pdb-1-5-6-two_bit.bin
+     */
+    public static String fileName(int[] tiles, PatternDatabase.Format format)
+    {
+        StringBuilder sb = new StringBuilder("pdb");
+        for (int t : tiles)
+        {
+            sb.append('-').append(t);
+        }
+        if (format != PatternDatabase.Format.BYTE)
+        {
+            sb.append('-').append(format.name().toLowerCase());
+        }
+        return sb.append(".bin").toString();
+    }
+
+    @Override
+    public int estimate(BoardState state)
+    {
+        int h = 0;
+        for (PatternDatabase db : databases)
+        {
+            h += db.lookup(state);
+        }
+        return h;
+    }
+
+    // Only the database holding the Tile that slides can change
+    @Override
+    public int delta(BoardState state, int dir)
+    {
+        int empty = state.emptyPos();
+        int from = empty + OFFSET[dir];
+        PatternDatabase db = owner[state.get(from)];
+        return db == null ? 0 : db.lookupDelta(state, from, empty);
+    }
+
+    /**
+     * Build the pattern database files for a partition ahead of time and
+     * check every file against its checksum. Building 78 needs a heap of about 3 GB.
+     * Usage: java PatternDatabaseHeuristic [directory] [663|78] [byte|nibble|two_bit]
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path directory = args.length > 0 ? Path.of(args[0]) : DEFAULT_DIRECTORY;
+        int[][] partition = args.length > 1 && args[1].equals("78") ? PARTITION_78 : PARTITION_663;
+        PatternDatabase.Format format = args.length > 2
+                ? PatternDatabase.Format.valueOf(args[2].toUpperCase())
+                : PatternDatabase.Format.BYTE;
+
+        long start = System.nanoTime();
+        load(directory, partition, format);
+        System.out.printf("Pattern databases ready in %s (%.1f s)%n",
+                directory, (System.nanoTime() - start) / 1e9);
+
+        for (int[] tiles : partition)
+        {
+            String name = fileName(tiles, format);
+            PatternDatabase db = PatternDatabase.open(directory.resolve(name));
+            System.out.printf("%-36s checksum %08x %s%n", name, db.checksum(),
+                    db.verify() ? "ok" : "DOES NOT MATCH THE FILE");
+        }
+    }
+}
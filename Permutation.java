@@ -12,6 +12,46 @@ public class Permutation
     // Stores if the permutation is even
     private boolean isEven;
 
+    // The most objects rank can handle, 20! is the largest factorial that fits in a long
+    public static final int MAX_RANK_OBJECTS = 20;
+
+    // ARRANGEMENTS[n][k] is the number of ways to arrange k of n objects, n! / (n - k)!
+    private static final long[][] ARRANGEMENTS = new long[MAX_RANK_OBJECTS + 1][MAX_RANK_OBJECTS + 1];
+
+    // INVERSES[n][k] is 1.0 / ARRANGEMENTS[n][k]
+    private static final double[][] INVERSES = new double[MAX_RANK_OBJECTS + 1][MAX_RANK_OBJECTS + 1];
+
+    // SELECT[b << 3 | j] is the index of the jth set bit in the byte b
+    private static final byte[] SELECT = new byte[256 * 8];
+
+    static
+    {
+        for (int n = 0; n <= MAX_RANK_OBJECTS; n++)
+        {
+            ARRANGEMENTS[n][0] = 1;
+            for (int k = 1; k <= n; k++)
+            {
+                ARRANGEMENTS[n][k] = ARRANGEMENTS[n][k - 1] * (n - k + 1);
+            }
+            for (int k = 0; k <= n; k++)
+            {
+                INVERSES[n][k] = 1.0 / ARRANGEMENTS[n][k];
+            }
+        }
+
+        for (int b = 0; b < 256; b++)
+        {
+            int j = 0;
+            for (int bit = 0; bit < 8; bit++)
+            {
+                if ((b & (1 << bit)) != 0)
+                {
+                    SELECT[b << 3 | j++] = (byte) bit;
+                }
+            }
+        }
+    }
+
     /**
      * Create a Permutation for n objects with numSwaps swaps
      * @param n        the number of objects to permute
@@ -189,6 +229,231 @@ public class Permutation
         }
     }
 
+    /**
+     * Get the number of ways to arrange k of n objects in order, which is
+     * the number of ranks for that many objects
+     * @param n the number of objects to pick from
+     * @param k the number of objects picked
+     * @return n! / (n - k)!
+     * @throws IllegalArgumentException if k isn't between 0 and n, or n is over MAX_RANK_OBJECTS
+     */
+    public static long arrangements(int n, int k)
+    {
+        checkRankSize(n, k);
+        return ARRANGEMENTS[n][k];
+    }
+
+    /**
+     * Rank a permutation of 0 to n - 1 by its Lehmer code, so the n!
+     * permutations get the ranks 0 to n! - 1 in lexicographic order
+     * @param items a permutation of 0 to items.length - 1, which is not changed
+     * @return the rank of items
+     * @throws IllegalArgumentException if items has more than MAX_RANK_OBJECTS items
+     */
+    public static long rank(int[] items)
+    {
+        return rank(items, items.length, items.length);
+    }
+
+    /**
+     * Rank an ordered pick of k distinct values from 0 to n - 1, like the
+     * cells of a pattern's Tiles, so the n! / (n - k)! picks get the ranks
+     * 0 to n! / (n - k)! - 1 in lexicographic order
+     * @param items holds the picked values in its first k entries, which are not changed
+     * @param k     the number of values picked
+     * @param n     the number of values to pick from
+     * @return the rank of the first k items
+     * @throws IllegalArgumentException if k isn't between 0 and n, or n is over MAX_RANK_OBJECTS
+     */
+    public static long rank(int[] items, int k, int n)
+    {
+        checkRankSize(n, k);
+
+        // Each digit is how many unused values are smaller than the item
+        long rank = 0;
+        int used = 0;
+        for (int i = 0; i < k; i++)
+        {
+            int item = items[i];
+            rank = rank * (n - i) + item - Integer.bitCount(used & ((1 << item) - 1));
+            used |= 1 << item;
+        }
+        return rank;
+    }
+
+    /**
+     * Rank an ordered pick of k distinct values from 0 to n - 1 packed 4 bits
+     * each, lowest first, giving the same rank as the array version. Only
+     * values up to 15 fit, like the cells of a 4x4 board.
+     * @param items the picked values, 4 bits each
+     * @param k     the number of values picked
+     * @param n     the number of values to pick from, at most 16
+     * @return the rank of the k packed items
+     * @throws IllegalArgumentException if k isn't between 0 and n, or n is over 16
+     */
+    public static long rankPacked(long items, int k, int n)
+    {
+        checkRankSize(n, k);
+        if (n > 16)
+        {
+            throw new IllegalArgumentException("packed values only go up to 15");
+        }
+
+        long rank = 0;
+        int used = 0;
+        for (int i = 0; i < k; i++)
+        {
+            int item = (int) (items >>> (i << 2)) & 0xF;
+            rank = rank * (n - i) + item - Integer.bitCount(used & ((1 << item) - 1));
+            used |= 1 << item;
+        }
+        return rank;
+    }
+
+    /**
+     * Reverse of rank(items), filling in the permutation with a given rank
+     * @param rank  the rank, from 0 to items.length! - 1
+     * @param items where to put the permutation of 0 to items.length - 1
+     * @throws IllegalArgumentException if items has more than MAX_RANK_OBJECTS items
+     */
+    public static void unrank(long rank, int[] items)
+    {
+        unrank(rank, items, items.length, items.length);
+    }
+
+    /**
+     * Reverse of rank(items, k, n), filling in the pick with a given rank
+     * @param rank  the rank, from 0 to n! / (n - k)! - 1
+     * @param items where to put the k picked values, in its first k entries
+     * @param k     the number of values picked
+     * @param n     the number of values to pick from
+     * @throws IllegalArgumentException if k isn't between 0 and n, or n is over MAX_RANK_OBJECTS
+     */
+    public static void unrank(long rank, int[] items, int k, int n)
+    {
+        checkRankSize(n, k);
+
+        // Digits come out first to last, each worth the arrangements of the items after it
+        int unused = (int) ((1L << n) - 1);
+        for (int i = 0; i < k; i++)
+        {
+            long weight = ARRANGEMENTS[n - 1 - i][k - 1 - i];
+            int digit = digit(rank, weight, INVERSES[n - 1 - i][k - 1 - i]);
+            rank -= digit * weight;
+
+            int item = select(unused, digit);
+            items[i] = item;
+            unused &= ~(1 << item);
+        }
+    }
+
+    /**
+     * Reverse of rankPacked, giving the pick with a given rank
+     * @param rank the rank, from 0 to n! / (n - k)! - 1
+     * @param k    the number of values picked
+     * @param n    the number of values to pick from, at most 16
+     * @return the k picked values, 4 bits each
+     * @throws IllegalArgumentException if k isn't between 0 and n, or n is over 16
+     */
+    public static long unrankPacked(long rank, int k, int n)
+    {
+        checkRankSize(n, k);
+        if (n > 16)
+        {
+            throw new IllegalArgumentException("packed values only go up to 15");
+        }
+
+        long items = 0;
+        int unused = (1 << n) - 1;
+        for (int i = 0; i < k; i++)
+        {
+            long weight = ARRANGEMENTS[n - 1 - i][k - 1 - i];
+            int digit = digit(rank, weight, INVERSES[n - 1 - i][k - 1 - i]);
+            rank -= digit * weight;
+
+            int item = select(unused, digit);
+            items |= (long) item << (i << 2);
+            unused &= ~(1 << item);
+        }
+        return items;
+    }
+
+    /**
+     * Find whether a permutation takes an odd number of swaps, by counting its cycles
+     * @param items a permutation of 0 to items.length - 1, at most 32 items, which is not changed
+     * @return 0 if the permutation is even and 1 if it is odd
+     */
+    public static int parity(int[] items)
+    {
+        // Each cycle of length L takes L - 1 swaps
+        int seen = 0;
+        int swaps = items.length;
+        for (int i = 0; i < items.length; i++)
+        {
+            if ((seen & (1 << i)) != 0)
+            {
+                continue;
+            }
+            swaps--;
+            for (int j = i; (seen & (1 << j)) == 0; j = items[j])
+            {
+                seen |= 1 << j;
+            }
+        }
+        return swaps & 1;
+    }
+
+    // rank / weight, where the answer is always below 20
+    // Multiplying by the inverse is much cheaper than a long divide, and
+    // rounding can only leave it one out either way, which is then fixed
+    private static int digit(long rank, long weight, double inverse)
+    {
+        int digit = (int) (rank * inverse);
+        long rest = rank - digit * weight;
+        if (rest < 0)
+        {
+            digit--;
+        }
+        else if (rest >= weight)
+        {
+            digit++;
+        }
+        return digit;
+    }
+
+    // The index of the jth set bit of mask, which is at most 24 bits
+    // Skips a byte at a time without branching, since which byte the bit is
+    // in is random and a mispredicted branch costs more than the whole lookup
+    private static int select(int mask, int j)
+    {
+        int count = Integer.bitCount(mask & 0xFF);
+        int skip = j >= count ? 8 : 0;
+        j -= j >= count ? count : 0;
+        int base = skip;
+        mask >>>= skip;
+
+        count = Integer.bitCount(mask & 0xFF);
+        skip = j >= count ? 8 : 0;
+        j -= j >= count ? count : 0;
+        base += skip;
+        mask >>>= skip;
+
+        return base + SELECT[(mask & 0xFF) << 3 | j];
+    }
+
+    // Make sure k of n objects can be ranked into a long
+    private static void checkRankSize(int n, int k)
+    {
+        if (n < 0 || n > MAX_RANK_OBJECTS)
+        {
+            throw new IllegalArgumentException("can only rank up to " + MAX_RANK_OBJECTS + " objects");
+        }
+        if (k < 0 || k > n)
+        {
+            throw new IllegalArgumentException("k must be between 0 and n");
+        }
+    }
+
     // Swap the ith and jth elements in list
     private <T> void swap(List<T> list, int i, int j)
     {
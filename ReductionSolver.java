@@ -0,0 +1,437 @@
+
+/**
+ * Solves a board of any size by reduction: the top row or left column of the
+ * unsolved area is put in place and locked, which leaves a smaller board, until
+ * only a 2x2 is left to spin into place.
+ *
+ * Whichever side of the unsolved area is longer gets solved first, so it stays
+ * close to square. Columns are solved with the same code as rows by swapping
+ * x and y, which also swaps UP with LEFT and DOWN with RIGHT.
+ *
+ * The solutions are not optimal, but every Tile only travels once, so the
+ * number of moves grows with the cube of the board's side. The empty cell
+ * walks straight towards the Tile being moved and only searches the few cells
+ * around it, so the time taken grows with the number of moves, not with the
+ * area of the board. Moves are streamed to a MoveSink as they are made, which
+ * lets boards of a million cells be solved without holding the solution.
+ */
+public class ReductionSolver
+{
+    // How far around the Tile being moved the empty cell searches
+    private static final int WINDOW = 2;
+
+    // Swaps the last 2 Tiles of a line when they are in each other's cells,
+    // starting with the empty cell under the first one and staying inside the
+    // 2x3 below them. Found by a breadth first search over that 2x3.
+    private static final String SWAP_LAST_TWO = "URDDLURULDDRULURD";
+
+    private final GridState state;
+    private final int width;
+    private final int height;
+
+    // The cell each Tile is in, indexed by value, with the empty cell at 0
+    private final int[] positions;
+
+    // Cells the empty cell must not move through
+    private final boolean[] locked;
+
+    // Where every move goes
+    private final MoveSink sink;
+    private long moves;
+
+    // Scratch space for breadth first searches, reused to avoid allocating
+    // A cell's parent is only valid if its mark matches the current search
+    private final int[] queue;
+    private final int[] parent;
+    private final int[] marks;
+    private int mark;
+
+    // Whether the line being solved is a column
+    private boolean transposed;
+
+    private ReductionSolver(GridState start, MoveSink sink)
+    {
+        this.sink = sink;
+        this.state = start.copy();
+        this.width = start.width();
+        this.height = start.height();
+        this.positions = new int[start.size()];
+        for (int pos = 0; pos < start.size(); pos++)
+        {
+            positions[start.get(pos)] = pos;
+        }
+        this.locked = new boolean[start.size()];
+        this.queue = new int[start.size()];
+        this.parent = new int[start.size()];
+        this.marks = new int[start.size()];
+    }
+
+    /**
+     * Plan the moves that solve a board of any size
+     * @param start the board to solve, which is not changed
+     * @return the directions the empty cell moves in, using the constants from BoardState
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public static byte[] plan(GridState start)
+    {
+        MoveBuffer plan = new MoveBuffer();
+        solve(start, plan);
+        return plan.toArray();
+    }
+
+    /**
+     * Solve a board of any size, sending each move to sink as soon as it is made
+     * @param start the board to solve, which is not changed
+     * @param sink  where to send the moves, using the direction constants from BoardState
+     * @return the number of moves sent
+     * @throws IllegalArgumentException if the board can't be solved
+     */
+    public static long solve(GridState start, MoveSink sink)
+    {
+        if (!start.isSolvable())
+        {
+            throw new IllegalArgumentException("board is not solvable");
+        }
+
+        ReductionSolver s = new ReductionSolver(start, sink);
+        s.solve();
+        return s.moves;
+    }
+
+    // Shrink the unsolved area one line at a time, then finish the last 2x2
+    private void solve()
+    {
+        int left = 0;
+        int top = 0;
+        while (height - top > 2 || width - left > 2)
+        {
+            int rows = height - top;
+            int cols = width - left;
+            if (rows > 2 && (rows >= cols || cols == 2))
+            {
+                transposed = false;
+                solveLine(left, top, width);
+                top++;
+            }
+            else
+            {
+                transposed = true;
+                solveLine(top, left, height);
+                left++;
+            }
+        }
+
+        transposed = false;
+        solve2x2(left, top);
+    }
+
+    // Solve the row line from start to end, in transposed coordinates if solving a column
+    // There is always at least one unsolved row below the line
+    private void solveLine(int start, int line, int end)
+    {
+        // Every Tile but the last 2 can go straight into place
+        for (int x = start; x < end - 2; x++)
+        {
+            int pos = cell(x, line);
+            place(pos + 1, pos);
+            locked[pos] = true;
+        }
+
+        int a = cell(end - 2, line);
+        int b = cell(end - 1, line);
+        if (state.get(a) == a + 1 && state.get(b) == b + 1)
+        {
+            locked[a] = true;
+            locked[b] = true;
+            return;
+        }
+
+        // The last 2 Tiles can't be placed one after the other, since the
+        // second one would have to push the first out of the way. Instead the
+        // first goes in the corner with the second under it, and then both
+        // slide into place together.
+        int below = cell(end - 1, line + 1);
+        place(a + 1, b);
+        locked[b] = true;
+
+        // The first one's cell is now a dead end, so the empty cell can't be left there
+        if (state.emptyPos() == a)
+        {
+            move(logical(BoardState.DOWN));
+        }
+
+        // If the second Tile is in the first one's cell, it is stuck in that dead
+        // end and has to be swapped out with a fixed sequence
+        if (positions[b + 1] == a)
+        {
+            locked[a] = true;
+            routeEmpty(cell(end - 2, line + 1), a);
+            for (char c : SWAP_LAST_TWO.toCharArray())
+            {
+                move(logical(switch (c)
+                {
+                    case 'U' -> BoardState.UP;
+                    case 'D' -> BoardState.DOWN;
+                    case 'L' -> BoardState.LEFT;
+                    default -> BoardState.RIGHT;
+                }));
+            }
+            return;
+        }
+
+        place(b + 1, below);
+        locked[below] = true;
+
+        routeEmpty(a, a);
+        move(logical(BoardState.RIGHT));
+        move(logical(BoardState.DOWN));
+
+        locked[below] = false;
+        locked[a] = true;
+    }
+
+    // Spin the last 2x2 until every Tile is in place
+    private void solve2x2(int left, int top)
+    {
+        int[] square = {
+            cell(left, top), cell(left + 1, top), cell(left + 1, top + 1), cell(left, top + 1)
+        };
+
+        // Going around the square 3 times reaches every arrangement
+        for (int i = 0; i < 12 && !solved2x2(square); i++)
+        {
+            int at = 0;
+            while (square[at] != state.emptyPos())
+            {
+                at++;
+            }
+            move(state.direction(state.emptyPos(), square[(at + 1) % 4]));
+        }
+    }
+
+    // Check if the last 2x2 is in order with the empty cell in the bottom right
+    private boolean solved2x2(int[] square)
+    {
+        return state.get(square[0]) == square[0] + 1
+                && state.get(square[1]) == square[1] + 1
+                && state.get(square[3]) == square[3] + 1
+                && state.emptyPos() == square[2];
+    }
+
+    // Move the Tile with the given value to target without moving any locked Tile
+    private void place(int value, int target)
+    {
+        int pos = positions[value];
+        while (pos != target)
+        {
+            int next = towards(pos, target);
+
+            // Bring the empty cell in front of the Tile without moving the Tile
+            locked[pos] = true;
+            routeEmpty(next, pos);
+            locked[pos] = false;
+
+            move(state.direction(state.emptyPos(), pos));
+            pos = next;
+        }
+    }
+
+    // Get the next cell on a Tile's way to target
+    // Tiles move along the line first and then across it, in the current
+    // line's coordinates, so they only reach the line at their own cell
+    private int towards(int pos, int target)
+    {
+        int x = transposed ? pos / width : pos % width;
+        int y = transposed ? pos % width : pos / width;
+        int tx = transposed ? target / width : target % width;
+        int ty = transposed ? target % width : target / width;
+        if (x != tx)
+        {
+            return cell(x + Integer.signum(tx - x), y);
+        }
+        return cell(x, y + Integer.signum(ty - y));
+    }
+
+    // Move the empty cell to target through unlocked cells
+    // center is a cell near target that the empty cell only has to search around
+    private void routeEmpty(int target, int center)
+    {
+        walk(target, center);
+
+        int pos = state.emptyPos();
+        if (pos == target)
+        {
+            return;
+        }
+
+        // Search the cells around center, and only fall back to the whole
+        // board if they are too hemmed in by locked cells
+        int cx = center % width;
+        int cy = center / width;
+        if (!search(target, pos, cx - WINDOW, cy - WINDOW, cx + WINDOW, cy + WINDOW)
+                && !search(target, pos, 0, 0, width - 1, height - 1))
+        {
+            throw new IllegalStateException("no path for the empty cell to " + target);
+        }
+        while (pos != target)
+        {
+            int next = parent[pos];
+            move(state.direction(pos, next));
+            pos = next;
+        }
+    }
+
+    // Step the empty cell straight towards target until it is within the
+    // window around center. Far from center the only things in the way are
+    // locked lines, and a step along the other axis always gets around them.
+    private void walk(int target, int center)
+    {
+        int tx = target % width;
+        int ty = target / width;
+        int cx = center % width;
+        int cy = center / width;
+
+        int pos = state.emptyPos();
+        while (pos != target)
+        {
+            int x = pos % width;
+            int y = pos / width;
+            if (Math.abs(x - cx) <= WINDOW && Math.abs(y - cy) <= WINDOW)
+            {
+                return;
+            }
+
+            // Try the axis with further to go first
+            int h = tx > x ? BoardState.RIGHT : tx < x ? BoardState.LEFT : -1;
+            int v = ty > y ? BoardState.DOWN : ty < y ? BoardState.UP : -1;
+            int first = Math.abs(tx - x) >= Math.abs(ty - y) ? h : v;
+            int second = first == h ? v : h;
+
+            if (first != -1 && !locked[pos + state.offset(first)])
+            {
+                move(first);
+            }
+            else if (second != -1 && !locked[pos + state.offset(second)])
+            {
+                move(second);
+            }
+            else
+            {
+                // Let the search find a way around
+                return;
+            }
+            pos = state.emptyPos();
+        }
+    }
+
+    // Breadth first search outwards from target through unlocked cells inside a rectangle
+    // Afterwards parent[cell] is the next cell on a shortest path to target
+    // Returns true once stop is reached, or false if it can't be reached
+    private boolean search(int target, int stop, int x0, int y0, int x1, int y1)
+    {
+        x0 = Math.max(x0, 0);
+        y0 = Math.max(y0, 0);
+        x1 = Math.min(x1, width - 1);
+        y1 = Math.min(y1, height - 1);
+
+        mark++;
+        marks[target] = mark;
+        parent[target] = target;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = target;
+
+        while (head < tail)
+        {
+            int pos = queue[head++];
+            if (pos == stop)
+            {
+                return true;
+            }
+
+            int x = pos % width;
+            int y = pos / width;
+            if (y > y0) tail = visit(pos, pos - width, tail);
+            if (y < y1) tail = visit(pos, pos + width, tail);
+            if (x > x0) tail = visit(pos, pos - 1, tail);
+            if (x < x1) tail = visit(pos, pos + 1, tail);
+        }
+        return false;
+    }
+
+    // Add a neighbor to the search if it is new and unlocked
+    private int visit(int from, int to, int tail)
+    {
+        if (marks[to] != mark && !locked[to])
+        {
+            marks[to] = mark;
+            parent[to] = from;
+            queue[tail++] = to;
+        }
+        return tail;
+    }
+
+    // Move the empty cell and send the move to the sink
+    private void move(int dir)
+    {
+        int from = state.emptyPos();
+        state.apply(dir);
+
+        // The Tile next to the empty cell slid into its old cell
+        positions[state.get(from)] = from;
+        positions[GridState.EMPTY] = state.emptyPos();
+        sink.add(dir);
+        moves++;
+    }
+
+    // Get the index of (x, y) in the current line's coordinates
+    private int cell(int x, int y)
+    {
+        return transposed ? x * width + y : y * width + x;
+    }
+
+    // Get the real direction for a direction in the current line's coordinates
+    private int logical(int dir)
+    {
+        // UP and LEFT, and DOWN and RIGHT, differ only in the second bit
+        return transposed ? dir ^ 2 : dir;
+    }
+
+    /**
+     * Print the average number of moves and time for square boards of
+     * every size from 3x3 to 10x10, checking that every solution works
+     * Usage: java ReductionSolver [boards] [seed]
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        BoardGenerator generator = new BoardGenerator(seed);
+
+        for (int side = 3; side <= 10; side++)
+        {
+            long moves = 0;
+            long nanos = 0;
+            for (int i = 0; i < count; i++)
+            {
+                GridState start = generator.nextGrid(side, side);
+
+                long time = System.nanoTime();
+                byte[] plan = plan(start);
+                nanos += System.nanoTime() - time;
+                moves += plan.length;
+
+                for (byte dir : plan)
+                {
+                    start.apply(dir);
+                }
+                if (!start.isSolved())
+                {
+                    throw new IllegalStateException("plan didn't solve the board");
+                }
+            }
+            System.out.printf("%2dx%-2d %8.1f moves %8.3f ms%n", side, side,
+                    (double) moves / count, nanos / 1e6 / count);
+        }
+    }
+}
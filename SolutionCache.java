@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A bounded cache of solutions, keyed by packed board, that throws out the
+ * least recently used solution once it is full.
+ *
+ * Reflecting a board in its main diagonal, and relabeling each Tile with the
+ * Tile whose goal cell is the reflection of its own, gives another solvable
+ * board. Its solutions are the reflected solutions of the first board, with
+ * up swapped for left and down for right, so they are just as short. Each
+ * board is stored under whichever of it and its reflection packs to the
+ * smaller long, so a board and its mirror image share one entry.
+ *
+ * The cache can be written to a file and mapped back in by a later run.
+ * Entries are written from least to most recently used, so reading them
+ * back keeps their order. All methods are synchronized, so one cache can be
+ * shared by several solvers.
+ */
+public class SolutionCache
+{
+    // "SOL1"
+    private static final int MAGIC = 0x534F4C31;
+
+    // Magic, entry count and checksum
+    private static final int HEADER = 12;
+
+    // The Tile on the reflected board for each Tile value
+    private static final int[] REFLECTED = new int[BoardState.SIZE];
+
+    static
+    {
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            int gx = (v - 1) % BoardState.WIDTH;
+            int gy = (v - 1) / BoardState.WIDTH;
+            REFLECTED[v] = gx * BoardState.WIDTH + gy + 1;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Long, byte[]> plans;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create an empty SolutionCache
+     * @param capacity the most solutions to keep
+     * @throws IllegalArgumentException if capacity isn't positive
+     */
+    public SolutionCache(int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest)
+            {
+                if (size() > SolutionCache.this.capacity)
+                {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Reflect a packed board in its main diagonal
+     * @param tiles the packed board
+     * @return the packed reflected board
+     */
+    public static long reflect(long tiles)
+    {
+        long reflected = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int v = (int) (tiles >>> (pos << 2)) & 0xF;
+            int to = (pos % BoardState.WIDTH) * BoardState.WIDTH + pos / BoardState.WIDTH;
+            reflected |= (long) REFLECTED[v] << (to << 2);
+        }
+        return reflected;
+    }
+
+    /**
+     * Get the key a board and its reflection are both stored under
+     * @param tiles the packed board
+     * @return the smaller of the packed board and its reflection
+     */
+    public static long canonical(long tiles)
+    {
+        return Math.min(tiles, reflect(tiles));
+    }
+
+    /**
+     * Get the solution stored for a board or its reflection
+     * @param start the board to look up, which is not changed
+     * @return a copy of the moves that solve start, reflected if they were
+     * stored for its reflection, or null if neither is in the cache
+     */
+    public synchronized byte[] get(BoardState start)
+    {
+        long tiles = start.packed();
+        long reflected = reflect(tiles);
+        byte[] plan = plans.get(Math.min(tiles, reflected));
+        if (plan == null)
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        return tiles <= reflected ? plan.clone() : reflectMoves(plan);
+    }
+
+    /**
+     * Store the solution for a board, replacing any stored for it or its
+     * reflection, and throw out the least recently used solution if the
+     * cache is full
+     * @param start the board that was solved, which is not changed
+     * @param moves the moves that solve start, which are copied
+     */
+    public synchronized void put(BoardState start, byte[] moves)
+    {
+        long tiles = start.packed();
+        long reflected = reflect(tiles);
+        plans.put(Math.min(tiles, reflected), tiles <= reflected ? moves.clone() : reflectMoves(moves));
+    }
+
+    // Swap up for left and down for right
+    private static byte[] reflectMoves(byte[] moves)
+    {
+        byte[] reflected = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++)
+        {
+            reflected[i] = (byte) (moves[i] ^ 2);
+        }
+        return reflected;
+    }
+
+    /**
+     * Get the number of solutions stored
+     * @return the number of entries
+     */
+    public synchronized int size()
+    {
+        return plans.size();
+    }
+
+    /**
+     * Get the most solutions this cache keeps
+     * @return the capacity
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Get the number of lookups that found a solution
+     * @return the number of hits
+     */
+    public synchronized long hits()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that found nothing
+     * @return the number of misses
+     */
+    public synchronized long misses()
+    {
+        return misses;
+    }
+
+    /**
+     * Get the number of solutions thrown out to make room
+     * @return the number of evictions
+     */
+    public synchronized long evictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Get the fraction of lookups that found a solution
+     * @return hits divided by lookups, or 0 if there haven't been any
+     */
+    public synchronized double hitRate()
+    {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized String toString()
+    {
+        return String.format("%d/%d solutions, %d hits, %d misses (%.1f%%), %d evictions",
+                plans.size(), capacity, hits, misses, 100 * hitRate(), evictions);
+    }
+
+    /**
+     * Write every solution to a file, least recently used first. Each entry
+     * is the canonical packed board, the number of moves and the moves
+     * packed 4 to a byte.
+     * @param file the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void write(Path file) throws IOException
+    {
+        long bytes = HEADER;
+        for (byte[] plan : plans.values())
+        {
+            bytes += entryBytes(plan.length);
+        }
+
+        // Write to a temporary file first so a half written cache is never read
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer buffer = ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.BIG_ENDIAN);
+            buffer.position(HEADER);
+            for (Map.Entry<Long, byte[]> e : plans.entrySet())
+            {
+                byte[] plan = e.getValue();
+                buffer.putLong(e.getKey());
+                buffer.putShort((short) plan.length);
+                for (int i = 0; i < plan.length; i += 4)
+                {
+                    int packed = 0;
+                    for (int j = i; j < Math.min(plan.length, i + 4); j++)
+                    {
+                        packed |= plan[j] << ((j - i) << 1);
+                    }
+                    buffer.put((byte) packed);
+                }
+            }
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, plans.size());
+            buffer.putInt(8, (int) checksum(buffer, bytes));
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a file written by write into memory and add its solutions to this
+     * cache, in the order they were written. If there are more than fit, the
+     * least recently used are thrown out and counted as evictions.
+     * @param file the file to read
+     * @return the number of solutions read
+     * @throws IOException if the file can't be read, isn't a solution cache
+     * or doesn't match its checksum
+     */
+    public synchronized int read(Path file) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long bytes = ch.size();
+            ByteBuffer buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, bytes).order(ByteOrder.BIG_ENDIAN);
+            if (bytes < HEADER || buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException(file + " is not a solution cache");
+            }
+            if ((buffer.getInt(8) & 0xFFFFFFFFL) != checksum(buffer, bytes))
+            {
+                throw new IOException(file + " doesn't match its checksum");
+            }
+
+            int count = buffer.getInt(4);
+            buffer.position(HEADER);
+            try
+            {
+                for (int n = 0; n < count; n++)
+                {
+                    long key = buffer.getLong();
+                    byte[] plan = new byte[buffer.getShort() & 0xFFFF];
+                    for (int i = 0; i < plan.length; i += 4)
+                    {
+                        int packed = buffer.get();
+                        for (int j = i; j < Math.min(plan.length, i + 4); j++)
+                        {
+                            plan[j] = (byte) ((packed >>> ((j - i) << 1)) & 3);
+                        }
+                    }
+                    plans.put(key, plan);
+                }
+            }
+            catch (RuntimeException ex)
+            {
+                throw new IOException(file + " is truncated", ex);
+            }
+            return count;
+        }
+    }
+
+    // The CRC-32 of everything after the header
+    private static long checksum(ByteBuffer buffer, long bytes)
+    {
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER);
+        body.limit((int) bytes);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    // The key, the length and the moves 4 to a byte
+    private static int entryBytes(int moves)
+    {
+        return 8 + 2 + (moves + 3) / 4;
+    }
+
+    /**
+     * Solve random boards and their reflections through a cache, write it
+     * to a file, read it back and check every solution still solves its board
+     * Usage: java SolutionCache [boards] [file]
+     * @param args the optional number of boards and file to write
+     * @throws IOException if the file can't be written or read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Path file = Path.of(args.length > 1 ? args[1] : "solutions.cache");
+
+        SolutionCache cache = new SolutionCache(count);
+        AutoSolver solver = new AutoSolver(ManhattanHeuristic::new, cache);
+        BoardGenerator generator = new BoardGenerator(42);
+        BoardState[] boards = new BoardState[2 * count];
+        for (int b = 0; b < count; b++)
+        {
+            boards[2 * b] = generator.next();
+            boards[2 * b + 1] = new BoardState(reflect(boards[2 * b].packed()));
+        }
+
+        long time = System.nanoTime();
+        for (BoardState board : boards)
+        {
+            check(board, solver.solve(board).moves());
+        }
+        System.out.printf("Solved %d boards and their reflections in %.2f s: %s%n",
+                count, (System.nanoTime() - time) / 1e9, cache);
+
+        cache.write(file);
+        SolutionCache reread = new SolutionCache(count);
+        System.out.printf("Wrote %s (%,d bytes) and read back %d solutions%n",
+                file, Files.size(file), reread.read(file));
+        for (BoardState board : boards)
+        {
+            check(board, reread.get(board));
+        }
+        System.out.println("Read back: " + reread);
+    }
+
+    // Exit if moves don't solve the board
+    private static void check(BoardState board, byte[] moves)
+    {
+        BoardState s = board.copy();
+        if (moves != null)
+        {
+            for (int i = 0; i < moves.length && s.canMove(moves[i]); i++)
+            {
+                s.apply(moves[i]);
+            }
+        }
+        if (!s.isSolved())
+        {
+            System.out.println("Wrong solution for " + board);
+            System.exit(1);
+        }
+    }
+}
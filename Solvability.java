@@ -0,0 +1,211 @@
+/**
+ * Checks whether boards of any size can be solved, fast enough for boards
+ * with millions of cells.
+ *
+ * Every move swaps the empty cell with a neighbor, which flips both the
+ * parity of the board as a permutation and the parity of the empty cell's
+ * distance from the bottom right. A board can be solved exactly when the
+ * two match.
+ *
+ * The parity of a permutation is the parity of its length minus its number
+ * of cycles, which isSolvable finds in one pass, and the same pass checks
+ * the values are a permutation at all. isSolvableByInversions gets the
+ * same answer by counting inversions with a Fenwick tree in O(n log n)
+ * instead of comparing every pair, and inversions gives the count itself.
+ *
+ * Cells hold Tile values in row-major order, with value v belonging in cell
+ * v - 1 and the empty cell, 0, belonging in the last cell, like GridState.
+ */
+public final class Solvability
+{
+    private Solvability()
+    {
+    }
+
+    /**
+     * Check if a board can be slid back into the solved board, in one pass over its cycles
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param cells  the values on the board, 0 for the empty cell, which are not changed
+     * @return true if the board is solvable, false otherwise
+     * @throws IllegalArgumentException if cells isn't a permutation of the board's values
+     */
+    public static boolean isSolvable(int width, int height, int[] cells)
+    {
+        int size = checkSize(width, height, cells);
+
+        // One bit per cell, so huge boards don't need a byte each
+        long[] visited = new long[(size + 63) >>> 6];
+        int cycles = 0;
+        int empty = -1;
+        for (int i = 0; i < size; i++)
+        {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+            {
+                continue;
+            }
+
+            // Follow the cycle through i until it comes back around
+            cycles++;
+            int j = i;
+            do
+            {
+                visited[j >>> 6] |= 1L << j;
+                if (cells[j] == GridState.EMPTY)
+                {
+                    empty = j;
+                }
+                j = goal(cells[j], size);
+
+                // Coming back anywhere but i means some value shows up twice
+                if ((visited[j >>> 6] & (1L << j)) != 0 && j != i)
+                {
+                    throw new IllegalArgumentException("cells must hold every value exactly once");
+                }
+            } while (j != i);
+        }
+
+        return ((size - cycles) & 1) == distanceParity(width, height, empty);
+    }
+
+    /**
+     * Check if a board can be slid back into the solved board by counting inversions
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param cells  the values on the board, 0 for the empty cell, which are not changed
+     * @return true if the board is solvable, false otherwise
+     * @throws IllegalArgumentException if cells isn't a permutation of the board's values
+     */
+    public static boolean isSolvableByInversions(int width, int height, int[] cells)
+    {
+        long inversions = inversions(width, height, cells);
+        int empty = 0;
+        while (cells[empty] != GridState.EMPTY)
+        {
+            empty++;
+        }
+        return (int) (inversions & 1) == distanceParity(width, height, empty);
+    }
+
+    /**
+     * Count the pairs of cells whose values are out of order, treating the
+     * empty cell as the biggest value, in O(n log n)
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param cells  the values on the board, 0 for the empty cell, which are not changed
+     * @return the number of inversions
+     * @throws IllegalArgumentException if cells isn't a permutation of the board's values
+     */
+    public static long inversions(int width, int height, int[] cells)
+    {
+        int size = checkSize(width, height, cells);
+
+        // tree[i] counts the values seen so far in a range of goal cells
+        // ending at i - 1, the range being as long as the lowest set bit of i
+        int[] tree = new int[size + 1];
+        long inversions = 0;
+        for (int i = 0; i < size; i++)
+        {
+            int g = goal(cells[i], size);
+
+            // Count the values seen so far that belong at or before g
+            int smaller = 0;
+            for (int k = g + 1; k > 0; k &= k - 1)
+            {
+                smaller += tree[k];
+            }
+
+            // The rest of the i values so far belong after g, so come out of order
+            inversions += i - smaller;
+
+            // A value that was already seen would be counted as smaller than itself
+            int same = smaller;
+            for (int k = g; k > 0; k &= k - 1)
+            {
+                same -= tree[k];
+            }
+            if (same != 0)
+            {
+                throw new IllegalArgumentException("cells must hold every value exactly once");
+            }
+
+            for (int k = g + 1; k <= size; k += k & -k)
+            {
+                tree[k]++;
+            }
+        }
+        return inversions;
+    }
+
+    // The cell a value belongs in when the board is solved
+    private static int goal(int value, int size)
+    {
+        if (value < 0 || value >= size)
+        {
+            throw new IllegalArgumentException("values must be between 0 and " + (size - 1));
+        }
+        return value == GridState.EMPTY ? size - 1 : value - 1;
+    }
+
+    // Whether the empty cell is an odd or even number of moves from the bottom right
+    private static int distanceParity(int width, int height, int empty)
+    {
+        return ((width - 1 - empty % width) + (height - 1 - empty / width)) & 1;
+    }
+
+    // Make sure the board size matches the cells and return the number of cells
+    private static int checkSize(int width, int height, int[] cells)
+    {
+        if (width < 1 || height < 1 || (long) width * height != cells.length)
+        {
+            throw new IllegalArgumentException("cells must have exactly width * height entries");
+        }
+        return cells.length;
+    }
+
+    /**
+     * Time both checks on shuffled boards from 100x100 up, and make sure they agree
+     * Usage: java Solvability [seed]
+     * @param args the optional seed
+     */
+    public static void main(String[] args)
+    {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        BoardGenerator generator = new BoardGenerator(seed);
+
+        for (int side = 100; side <= 3200; side *= 2)
+        {
+            int[] cells = generator.nextGrid(side, side).values();
+
+            // Swap two Tiles on every other run so both answers get checked
+            for (int run = 0; run < 4; run++)
+            {
+                if (run % 2 == 1)
+                {
+                    int t = cells[0];
+                    cells[0] = cells[cells.length - 2];
+                    cells[cells.length - 2] = t;
+                }
+
+                long time = System.nanoTime();
+                boolean byCycles = isSolvable(side, side, cells);
+                double cycles = (System.nanoTime() - time) / 1e6;
+
+                time = System.nanoTime();
+                boolean byInversions = isSolvableByInversions(side, side, cells);
+                double inversions = (System.nanoTime() - time) / 1e6;
+
+                if (byCycles != byInversions)
+                {
+                    System.out.printf("%dx%d: cycles say %b but inversions say %b%n", side, side, byCycles, byInversions);
+                    System.exit(1);
+                }
+                if (run >= 2)
+                {
+                    System.out.printf("%5dx%-5d %s  cycles %8.2f ms  inversions %8.2f ms%n",
+                            side, side, byCycles ? "solvable  " : "unsolvable", cycles, inversions);
+                }
+            }
+        }
+    }
+}
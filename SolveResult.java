@@ -0,0 +1,56 @@
+/**
+ * The moves found by a solver along with how much work it took to find them
+ * and which search found them. Each move is the direction the empty cell
+ * moved in, using the constants from BoardState.
+ */
+public record SolveResult(byte[] moves, long nodes, long nanos, String solver)
+{
+    /**
+     * Create a SolveResult from an IDA* search
+     * @param moves the moves of the solution
+     * @param nodes the number of nodes expanded
+     * @param nanos the time the solve took in nanoseconds
+     */
+    public SolveResult(byte[] moves, long nodes, long nanos)
+    {
+        this(moves, nodes, nanos, "IDA*");
+    }
+
+    /**
+     * Get the number of moves in the solution
+     * @return the length of moves
+     */
+    public int length()
+    {
+        return moves.length;
+    }
+
+    /**
+     * Get the time the solve took in milliseconds
+     * @return the solve time in milliseconds
+     */
+    public double millis()
+    {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Get the moves as a string with one letter per move,
+     * U, D, L or R for the direction the empty cell moved
+     * @return the moves as a string
+     */
+    public String movesString()
+    {
+        StringBuilder sb = new StringBuilder(moves.length);
+        for (byte m : moves)
+        {
+            sb.append("UDLR".charAt(m));
+        }
+        return sb.toString();
+    }
+
+    public String toString()
+    {
+        return String.format("%s: %d moves, %d nodes, %.1f ms", solver, length(), nodes, millis());
+    }
+}
@@ -0,0 +1,438 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves boards for other programs over HTTP, so the heuristic and the
+ * solution cache stay loaded between solves. It only listens on the
+ * loopback interface.
+ *
+ * GET /solve?board=... takes the 16 values of a board in row-major order,
+ * separated by commas, in any format BatchSolver accepts. The optional
+ * budget is the most milliseconds to spend on it, counting any time spent
+ * waiting for a solver, and the optional id names the request so that
+ * GET /cancel?id=... can stop it. A solved board's response starts with a
+ * line of the number of moves, the time in milliseconds, the nodes expanded
+ * and the solver, separated by tabs, then streams the moves as lines of
+ * U, D, L and R. A board that runs out of time or is cancelled gets 503,
+ * and a bad request 400, with the reason as the body. GET /stats reports
+ * counts for every outcome and the cache's hit rate.
+ *
+ * Every request runs on its own virtual thread when the JVM has them, and
+ * otherwise on a cached thread pool. Solving is limited to a fixed number
+ * of solvers, one per core by default, which requests wait for, so any
+ * number of requests can be open at once without the solves fighting over
+ * the cores.
+ *
+ * Usage: java SolveServer [-p port] [-t solvers] [-h manhattan|wd|pdb] [-c cache]
+ */
+public class SolveServer
+{
+    // The port to listen on if none is given
+    public static final int DEFAULT_PORT = 8015;
+
+    // The budget for requests that don't give one, in milliseconds
+    public static final long DEFAULT_BUDGET = 10_000;
+
+    // Connections the operating system queues before they are accepted
+    private static final int BACKLOG = 4096;
+
+    // Moves written on each line of a response
+    private static final int MOVES_PER_LINE = 16;
+
+    // The most solutions the cache keeps
+    private static final int CACHE_ENTRIES = 100_000;
+
+    private final HttpServer server;
+    private final ExecutorService requests;
+    private final BlockingQueue<AutoSolver> solvers;
+    private final SolutionCache cache;
+
+    // The thread running each named request, so it can be cancelled
+    private final Map<String, Request> running = new ConcurrentHashMap<>();
+
+    // How every request turned out
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder open = new LongAdder();
+
+    // A request that can be cancelled until it finishes. Finishing clears
+    // any interrupt a late cancel left, so it can't reach the next request
+    // a pooled thread runs.
+    private static class Request
+    {
+        private final Thread thread = Thread.currentThread();
+        private boolean done;
+
+        synchronized void cancel()
+        {
+            if (!done)
+            {
+                thread.interrupt();
+            }
+        }
+
+        synchronized boolean finish()
+        {
+            done = true;
+            return Thread.interrupted();
+        }
+    }
+
+    /**
+     * Create a SolveServer on the loopback interface. It doesn't accept
+     * requests until start is called.
+     * @param port      the port to listen on, or 0 for any free port
+     * @param threads   how many boards to solve at once
+     * @param heuristic the heuristic every solver uses, which must be safe to share
+     * @param cache     the solutions every solver shares, or null to solve every board
+     * @throws IOException if the port can't be bound
+     * @throws IllegalArgumentException if threads isn't positive
+     */
+    public SolveServer(int port, int threads, Heuristic heuristic, SolutionCache cache) throws IOException
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.cache = cache;
+        this.solvers = new ArrayBlockingQueue<>(threads);
+        for (int i = 0; i < threads; i++)
+        {
+            solvers.add(new AutoSolver(() -> heuristic));
+        }
+
+        this.requests = newTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(requests);
+        server.createContext("/solve", this::solve);
+        server.createContext("/cancel", this::cancel);
+        server.createContext("/stats", this::stats);
+    }
+
+    /**
+     * Get an executor that runs each task on a new virtual thread, or on a
+     * cached thread pool if this JVM doesn't have virtual threads
+     * @return the executor
+     */
+    public static ExecutorService newTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            // Not there, or a preview feature that isn't enabled
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Start accepting requests
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, waiting a little for open ones to finish
+     * @param seconds the most seconds to wait
+     */
+    public void stop(int seconds)
+    {
+        server.stop(seconds);
+        requests.shutdownNow();
+    }
+
+    /**
+     * Get the port the server listens on
+     * @return the port
+     */
+    public int port()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get a line of counts for every outcome so far, and the cache's hit
+     * rate if there is a cache
+     * @return the counts
+     */
+    public String stats()
+    {
+        String counts = String.format("solved %d, timed out %d, cancelled %d, rejected %d, open %d",
+                solved.sum(), timedOut.sum(), cancelled.sum(), rejected.sum(), open.sum());
+        return cache == null ? counts : counts + "; cache " + cache;
+    }
+
+    // GET /solve?board=...&budget=...&id=...
+    private void solve(HttpExchange exchange) throws IOException
+    {
+        open.increment();
+        try
+        {
+            solveRequest(exchange);
+        }
+        finally
+        {
+            open.decrement();
+        }
+    }
+
+    private void solveRequest(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            long time = System.nanoTime();
+            Map<String, String> query = query(exchange);
+            BoardState start;
+            long budget;
+            try
+            {
+                if (!exchange.getRequestMethod().equals("GET"))
+                {
+                    throw new IllegalArgumentException("only GET is supported");
+                }
+                String board = query.get("board");
+                if (board == null)
+                {
+                    throw new IllegalArgumentException("no board given");
+                }
+                start = BatchSolver.parse(board);
+                if (!start.isSolvable())
+                {
+                    throw new IllegalArgumentException("board is not solvable");
+                }
+                budget = query.containsKey("budget") ? Long.parseLong(query.get("budget")) : DEFAULT_BUDGET;
+                if (budget <= 0)
+                {
+                    throw new IllegalArgumentException("budget must be positive");
+                }
+            }
+            catch (IllegalArgumentException ex)
+            {
+                // NumberFormatException lands here too
+                rejected.increment();
+                reply(exchange, 400, "error: " + ex.getMessage());
+                return;
+            }
+
+            String id = query.get("id");
+            Request request = new Request();
+            if (id != null && running.putIfAbsent(id, request) != null)
+            {
+                rejected.increment();
+                reply(exchange, 400, "error: request " + id + " is already running");
+                return;
+            }
+
+            long deadline = time + TimeUnit.MILLISECONDS.toNanos(budget);
+            SolveResult result = null;
+            boolean interrupted;
+            try
+            {
+                // Cached boards don't wait for a solver
+                byte[] cached = cache == null ? null : cache.get(start);
+                if (cached != null)
+                {
+                    result = new SolveResult(cached, 0, System.nanoTime() - time, "cache");
+                }
+                else
+                {
+                    AutoSolver solver = solvers.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (solver != null)
+                    {
+                        try
+                        {
+                            result = solver.solve(start, deadline - System.nanoTime());
+                        }
+                        finally
+                        {
+                            solvers.add(solver);
+                        }
+                    }
+                    if (cache != null && result != null)
+                    {
+                        cache.put(start, result.moves());
+                    }
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                // Cancelled while waiting for a solver. poll cleared the
+                // interrupt, so set it again for finish to see.
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                if (id != null)
+                {
+                    running.remove(id);
+                }
+                interrupted = request.finish();
+            }
+
+            if (result != null)
+            {
+                solved.increment();
+                send(exchange, result, System.nanoTime() - time);
+            }
+            else if (interrupted)
+            {
+                cancelled.increment();
+                reply(exchange, 503, "cancelled");
+            }
+            else
+            {
+                timedOut.increment();
+                reply(exchange, 503, "timeout after " + budget + " ms");
+            }
+        }
+    }
+
+    // GET /cancel?id=...
+    private void cancel(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            String id = query(exchange).get("id");
+            Request request = id == null ? null : running.get(id);
+            if (request == null)
+            {
+                reply(exchange, 404, "no request " + id);
+                return;
+            }
+            request.cancel();
+            reply(exchange, 200, "cancelled " + id);
+        }
+    }
+
+    // GET /stats
+    private void stats(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            reply(exchange, 200, stats());
+        }
+    }
+
+    // Stream a solution back, a line of moves at a time
+    private static void send(HttpExchange exchange, SolveResult result, long nanos) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+
+        // A length of 0 sends the body in chunks as it is written
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String header = String.format("%d\t%.3f\t%d\t%s%n", result.length(), nanos / 1e6, result.nodes(), result.solver());
+        out.write(header.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        String moves = result.movesString();
+        for (int i = 0; i < moves.length(); i += MOVES_PER_LINE)
+        {
+            String line = moves.substring(i, Math.min(moves.length(), i + MOVES_PER_LINE)) + "\n";
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    // Send a short plain text response
+    private static void reply(HttpExchange exchange, int status, String message) throws IOException
+    {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // The parameters in the request's query string
+    private static Map<String, String> query(HttpExchange exchange)
+    {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+        {
+            return params;
+        }
+        for (String pair : query.split("&"))
+        {
+            int eq = pair.indexOf('=');
+            if (eq > 0)
+            {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String heuristicName = "pdb";
+        Path cacheFile = null;
+
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "-p" -> port = Integer.parseInt(args[++i]);
+                case "-t" -> threads = Integer.parseInt(args[++i]);
+                case "-h" -> heuristicName = args[++i];
+                case "-c" -> cacheFile = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+
+        SolutionCache cache = new SolutionCache(CACHE_ENTRIES);
+        if (cacheFile != null && Files.exists(cacheFile))
+        {
+            cache.read(cacheFile);
+        }
+
+        SolveServer server = new SolveServer(port, threads, BatchSolver.heuristic(heuristicName), cache);
+        server.start();
+        System.err.printf("Solving on http://%s:%d/ with %d solvers%n",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.port(), threads);
+
+        // Save the cache when stopped with Ctrl-C
+        Path file = cacheFile;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            System.err.println(server.stats());
+            if (file != null)
+            {
+                try
+                {
+                    cache.write(file);
+                }
+                catch (IOException ex)
+                {
+                    System.err.println("Couldn't save the solution cache: " + ex.getMessage());
+                }
+            }
+        }));
+    }
+}
@@ -1,16 +1,23 @@
-import java.util.ArrayList;
-import javafx.scene.layout.GridPane;
-
 public class Solver {
-    private Board board;
-    private Tile empty;
+    // A copy of the board that moves are made on
+    private BoardState state;
+
+    // The cell each Tile is in, indexed by value, with the empty Tile at 0
+    private int[] positions;
+
+    // Every move made so far, in order
+    private MoveBuffer plan;
 
     // The max value that has been moved into place
     private int maxSortedValue;
 
-    public Solver(Board board) {
-        this.board = board;
-        this.empty = board.getEmptyTile();
+    public Solver(BoardState state) {
+        this.state = state.copy();
+        this.positions = new int[BoardState.SIZE];
+        for (int pos = 0; pos < BoardState.SIZE; pos++) {
+            positions[state.get(pos)] = pos;
+        }
+        this.plan = new MoveBuffer();
         this.maxSortedValue = 0;
     }
 
@@ -35,17 +42,17 @@ public class Solver {
         // Get the 4 tiles in a clockwise order
         // a b 
         // c d becomes {a, b, d, c}
-        Tile[] square = {
-            board.getTile(sx  , sy  ), // Upper left
-            board.getTile(sx+1, sy  ), // Upper right
-            board.getTile(sx+1, sy+1), // Lower right
-            board.getTile(sx  , sy+1)  // Lower left
+        int[] square = {
+            cell(sx  , sy  ), // Upper left
+            cell(sx+1, sy  ), // Upper right
+            cell(sx+1, sy+1), // Lower right
+            cell(sx  , sy+1)  // Lower left
         };
         
         // Find the empty Tile
         int emptyIndex = -1;
         for (int k = 0; k < square.length; k++) {
-            if (empty.equals(square[k])) {
+            if (square[k] == state.emptyPos()) {
                 emptyIndex = k;
                 break;
             }
@@ -80,31 +87,19 @@ public class Solver {
             return false;
         }
 
-        // Get the Tile we care about and the Tile we want start to end up at
-        Tile startTile = square[start];
-        Tile stopTile = square[stop];
-
-        // Get the position of each of the Tiles
-        int startXPos = GridPane.getColumnIndex(startTile);
-        int startYPos = GridPane.getRowIndex(startTile);
-        int stopXPos = GridPane.getColumnIndex(stopTile);
-        int stopYPos = GridPane.getRowIndex(stopTile);
-
-        // Swap Tiles clockwise until the start Tile
-        // is at the old position of the stop Tile
-        int i = mod(emptyIndex - 1, square.length);
-        while (startXPos != stopXPos || startYPos != stopYPos) {
-            // If the current Tile isn't empty, swap it with the empty Tile
-            if (i != emptyIndex) {
-                board.swapTile(square[i]);
-            }
+        // Get the Tile we care about and the cell we want it to end up at
+        int startValue = state.get(square[start]);
+        int stopCell = square[stop];
 
+        // Move the empty Tile counterclockwise, which spins the Tiles
+        // clockwise, until the start Tile is at the stop cell
+        int i = emptyIndex;
+        while (positionOf(startValue) != stopCell) {
             // Decrement the index
             i = mod(i-1, square.length);
 
-            // Update the position of the Tile we care about
-            startXPos = GridPane.getColumnIndex(startTile);
-            startYPos = GridPane.getRowIndex(startTile);
+            // Swap the Tile there with the empty Tile
+            move(BoardState.direction(state.emptyPos(), square[i]));
         }
 
         return true;
@@ -139,19 +134,19 @@ public class Solver {
         // a b 
         // c d becomes {a, b, d, f, e, c}
         // e f 
-        Tile[] rect = {
-            board.getTile(sx  , sy  ), // Upper left
-            board.getTile(sx+1, sy  ), // Upper right
-            board.getTile(sx+1, sy+1), // Middle right
-            board.getTile(sx+1, sy+2), // Lower right
-            board.getTile(sx  , sy+2), // Lower left
-            board.getTile(sx  , sy+1), // Middle left
+        int[] rect = {
+            cell(sx  , sy  ), // Upper left
+            cell(sx+1, sy  ), // Upper right
+            cell(sx+1, sy+1), // Middle right
+            cell(sx+1, sy+2), // Lower right
+            cell(sx  , sy+2), // Lower left
+            cell(sx  , sy+1), // Middle left
         };
         
         // Find the empty Tile
         int emptyIndex = -1;
         for (int k = 0; k < rect.length; k++) {
-            if (empty.equals(rect[k])) {
+            if (rect[k] == state.emptyPos()) {
                 emptyIndex = k;
                 break;
             }
@@ -190,31 +185,19 @@ public class Solver {
             return false;
         }
 
-        // Get the Tile we care about and the Tile we want start to end up at
-        Tile startTile = rect[start];
-        Tile stopTile = rect[stop];
-
-        // Get the position of each of the Tiles
-        int startXPos = GridPane.getColumnIndex(startTile);
-        int startYPos = GridPane.getRowIndex(startTile);
-        int stopXPos = GridPane.getColumnIndex(stopTile);
-        int stopYPos = GridPane.getRowIndex(stopTile);
-
-        // Swap Tiles clockwise until the start Tile
-        // is at the old position of the stop Tile
-        int i = mod(emptyIndex - 1, rect.length);
-        while (startXPos != stopXPos || startYPos != stopYPos) {
-            // If the current Tile isn't empty, swap it with the empty Tile
-            if (i != emptyIndex) {
-                board.swapTile(rect[i]);
-            }
+        // Get the Tile we care about and the cell we want it to end up at
+        int startValue = state.get(rect[start]);
+        int stopCell = rect[stop];
 
+        // Move the empty Tile counterclockwise, which spins the Tiles
+        // clockwise, until the start Tile is at the stop cell
+        int i = emptyIndex;
+        while (positionOf(startValue) != stopCell) {
             // Decrement the index
             i = mod(i-1, rect.length);
 
-            // Update the position of the Tile we care about
-            startXPos = GridPane.getColumnIndex(startTile);
-            startYPos = GridPane.getRowIndex(startTile);
+            // Swap the Tile there with the empty Tile
+            move(BoardState.direction(state.emptyPos(), rect[i]));
         }
 
         return true;
@@ -251,21 +234,21 @@ public class Solver {
         // Get the 4 tiles in a clockwise order
         // a b c d
         // e f g h becomes {a, b, c, d, h, g, f, e}
-        Tile[] rect = {
-            board.getTile(sx  , sy  ), // Upper far left
-            board.getTile(sx+1, sy  ), // Upper left
-            board.getTile(sx+2, sy  ), // Upper right
-            board.getTile(sx+3, sy  ), // Upper far right
-            board.getTile(sx+3, sy+1), // Lower far right
-            board.getTile(sx+2, sy+1), // Lower right
-            board.getTile(sx+1, sy+1), // Lower left
-            board.getTile(sx  , sy+1), // Lower far left
+        int[] rect = {
+            cell(sx  , sy  ), // Upper far left
+            cell(sx+1, sy  ), // Upper left
+            cell(sx+2, sy  ), // Upper right
+            cell(sx+3, sy  ), // Upper far right
+            cell(sx+3, sy+1), // Lower far right
+            cell(sx+2, sy+1), // Lower right
+            cell(sx+1, sy+1), // Lower left
+            cell(sx  , sy+1), // Lower far left
         };
         
         // Find the empty Tile
         int emptyIndex = -1;
         for (int k = 0; k < rect.length; k++) {
-            if (empty.equals(rect[k])) {
+            if (rect[k] == state.emptyPos()) {
                 emptyIndex = k;
                 break;
             }
@@ -309,31 +292,19 @@ public class Solver {
             return false;
         }
 
-        // Get the Tile we care about and the Tile we want start to end up at
-        Tile startTile = rect[start];
-        Tile stopTile = rect[stop];
-
-        // Get the position of each of the Tiles
-        int startXPos = GridPane.getColumnIndex(startTile);
-        int startYPos = GridPane.getRowIndex(startTile);
-        int stopXPos = GridPane.getColumnIndex(stopTile);
-        int stopYPos = GridPane.getRowIndex(stopTile);
-
-        // Swap Tiles clockwise until the start Tile
-        // is at the old position of the stop Tile
-        int i = mod(emptyIndex - 1, rect.length);
-        while (startXPos != stopXPos || startYPos != stopYPos) {
-            // If the current Tile isn't empty, swap it with the empty Tile
-            if (i != emptyIndex) {
-                board.swapTile(rect[i]);
-            }
+        // Get the Tile we care about and the cell we want it to end up at
+        int startValue = state.get(rect[start]);
+        int stopCell = rect[stop];
 
+        // Move the empty Tile counterclockwise, which spins the Tiles
+        // clockwise, until the start Tile is at the stop cell
+        int i = emptyIndex;
+        while (positionOf(startValue) != stopCell) {
             // Decrement the index
             i = mod(i-1, rect.length);
 
-            // Update the position of the Tile we care about
-            startXPos = GridPane.getColumnIndex(startTile);
-            startYPos = GridPane.getRowIndex(startTile);
+            // Swap the Tile there with the empty Tile
+            move(BoardState.direction(state.emptyPos(), rect[i]));
         }
 
         return true;
@@ -369,19 +340,19 @@ public class Solver {
         // Get the 4 tiles in a clockwise order
         // a b c d
         // e f g h becomes {a, b, c, d, h, g, f, e}
-        Tile[] rect = {
-            board.getTile(sx  , sy  ), // Upper left
-            board.getTile(sx+1, sy  ), // Upper middle
-            board.getTile(sx+2, sy  ), // Upper right
-            board.getTile(sx+2, sy+1), // Lower right
-            board.getTile(sx+1, sy+1), // Lower middle
-            board.getTile(sx  , sy+1), // Lower left
+        int[] rect = {
+            cell(sx  , sy  ), // Upper left
+            cell(sx+1, sy  ), // Upper middle
+            cell(sx+2, sy  ), // Upper right
+            cell(sx+2, sy+1), // Lower right
+            cell(sx+1, sy+1), // Lower middle
+            cell(sx  , sy+1), // Lower left
         };
         
         // Find the empty Tile
         int emptyIndex = -1;
         for (int k = 0; k < rect.length; k++) {
-            if (empty.equals(rect[k])) {
+            if (rect[k] == state.emptyPos()) {
                 emptyIndex = k;
                 break;
             }
@@ -420,31 +391,19 @@ public class Solver {
             return false;
         }
 
-        // Get the Tile we care about and the Tile we want start to end up at
-        Tile startTile = rect[start];
-        Tile stopTile = rect[stop];
-
-        // Get the position of each of the Tiles
-        int startXPos = GridPane.getColumnIndex(startTile);
-        int startYPos = GridPane.getRowIndex(startTile);
-        int stopXPos = GridPane.getColumnIndex(stopTile);
-        int stopYPos = GridPane.getRowIndex(stopTile);
-
-        // Swap Tiles clockwise until the start Tile
-        // is at the old position of the stop Tile
-        int i = mod(emptyIndex - 1, rect.length);
-        while (startXPos != stopXPos || startYPos != stopYPos) {
-            // If the current Tile isn't empty, swap it with the empty Tile
-            if (i != emptyIndex) {
-                board.swapTile(rect[i]);
-            }
+        // Get the Tile we care about and the cell we want it to end up at
+        int startValue = state.get(rect[start]);
+        int stopCell = rect[stop];
 
+        // Move the empty Tile counterclockwise, which spins the Tiles
+        // clockwise, until the start Tile is at the stop cell
+        int i = emptyIndex;
+        while (positionOf(startValue) != stopCell) {
             // Decrement the index
             i = mod(i-1, rect.length);
 
-            // Update the position of the Tile we care about
-            startXPos = GridPane.getColumnIndex(startTile);
-            startYPos = GridPane.getRowIndex(startTile);
+            // Swap the Tile there with the empty Tile
+            move(BoardState.direction(state.emptyPos(), rect[i]));
         }
 
         return true;
@@ -459,10 +418,11 @@ public class Solver {
     // Find the coordinates of the upper left corner of the
     // 2x2 square with the given Tile and no solved tiles
     // Returns null if no such square exists
-    private Point find2x2Pos(Tile t) {
+    private Point find2x2Pos(int value) {
         // Get the absolute x and y position of the Tile
-        int absx = GridPane.getColumnIndex(t);
-        int absy = GridPane.getRowIndex(t);
+        Point abs = pointOf(value);
+        int absx = abs.x();
+        int absy = abs.y();
 
         // Find the upper left corner of the 2x2 with the Tile
         // that is also closest to (0, 0) as possible
@@ -478,18 +438,18 @@ public class Solver {
         for (int dy = 1; dy >= 0; dy--) {
             for (int dx = 1; dx >= 0; dx--) {
                 // Get the current square
-                Tile[] square = {
-                    board.getTile(absx - dx    , absy - dy    ), // Upper left
-                    board.getTile(absx - dx + 1, absy - dy    ), // Upper right
-                    board.getTile(absx - dx + 1, absy - dy + 1), // Lower right
-                    board.getTile(absx - dx    , absy - dy + 1)  // Lower left
+                Point[] square = {
+                    new Point(absx - dx    , absy - dy    ), // Upper left
+                    new Point(absx - dx + 1, absy - dy    ), // Upper right
+                    new Point(absx - dx + 1, absy - dy + 1), // Lower right
+                    new Point(absx - dx    , absy - dy + 1)  // Lower left
                 };
 
                 // Make sure no solved Tiles are in the square
                 boolean isValid = true;
-                for (Tile s : square) {
-                    // Make sure the Tile isn't null
-                    if (s == null) {
+                for (Point s : square) {
+                    // Make sure the Tile is on the board
+                    if (!inBounds(s.x(), s.y())) {
                         isValid = false;
                         break;
                     }
@@ -497,7 +457,8 @@ public class Solver {
                     // A Tile can't be in a 2x2 if it is already sorted
                     // An exception needs to be made for the empty Tile
                     // because it has a value of -1
-                    if (s.value() <= maxSortedValue && s.value() != -1) {
+                    int v = valueAt(s.x(), s.y());
+                    if (v <= maxSortedValue && v != -1) {
                         isValid = false;
                         break;
                     }
@@ -526,105 +487,76 @@ public class Solver {
     // Does the exact some thing as moveEmptyToPosition(int, int)
     private boolean moveEmptyToPosition(Point pos) {
         // Validate pos
-        if (pos.x() < 0 || pos.x() > 3 || pos.y() < 0 || pos.y() > 3) {
+        if (!inBounds(pos.x(), pos.y())) {
             return false;
         }
 
-        Tile target = board.getTile(pos.x(), pos.y());
-        if (target.value() <= maxSortedValue + 1 && target.value() != -1) {
+        int target = valueAt(pos.x(), pos.y());
+        if (target <= maxSortedValue + 1 && target != -1) {
             return false;
         }
 
-        // Get the empty Tile position
-        Point emptyPos = new Point(GridPane.getColumnIndex(empty), GridPane.getRowIndex(empty));
-
-        // Do some pathfinding
-        // This code is absolutely terrible
-        // Looking at it for more than a few minutes at a time can result in permanent blindness
-        ArrayList<Direction> directions = new ArrayList<>();
-        try {
-            tryAllDirections(emptyPos, pos, directions, new ArrayList<Point>());
+        // Lock every sorted Tile and the Tile currently being sorted
+        int locked = 0;
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                int value = valueAt(x, y);
+                if (value <= maxSortedValue + 1 && value != -1) {
+                    locked |= 1 << cell(x, y);
+                }
+            }
         }
-        catch (PathNotFoundExcpetion ex) {
-            System.out.println("Something is wrong.");
+
+        // Find the shortest path around the locked Tiles
+        byte[] path = BlankRouter.get().route(state.emptyPos(), cell(pos.x(), pos.y()), locked);
+        if (path == null) {
+            return false;
         }
-        
-        // Convert the directions into Tiles to board.swapRelativeToEmpty calls
-        // Make sure to iterate over directions backwards
-        for (int i = directions.size() - 1; i >= 0; i--) {
-            // Get the direction
-            Direction d = directions.get(i);
-
-            // Swap the Tile in that direction
-            board.swapTileRelativeToEmpty(d.getX(), d.getY());
+
+        // Move the empty Tile along the path
+        for (byte dir : path) {
+            move(dir);
         }
 
         return true;
     }
 
-    // Does the same thing as tryAllDirections with Points
-    @SuppressWarnings("unused")
-    private void tryAllDirections(int curx, int cury, int goalx, int goaly,
-                                  ArrayList<Direction> directions, ArrayList<Point> used) throws PathNotFoundExcpetion {
-        tryAllDirections(new Point(curx, cury), new Point(goalx, goaly), directions, used);
-    }
-
-    // Helper method for moveEmptyToPosition
-    // Recursively find valid moves to the target destination
-    // The end list of directions will be in the directions ArrayList
-    // The list of directions will be in reverse order
-    // Used should be an empty ArrayList on the first call
-    // It will contain all check points
-    private void tryAllDirections(Point cur, Point goal, 
-                                  ArrayList<Direction> directions, ArrayList<Point> used) throws PathNotFoundExcpetion{
-        // If the current point is the goal, start exiting recursion
-        if (cur.equals(goal)) {
-            directions = new ArrayList<>();
-            return;
-        }
-
-        // If the current point isn't the goal, add it to the used points list
-        used.add(cur);
+    // Move the empty Tile and record the move in the plan
+    private void move(int dir) {
+        int from = state.emptyPos();
+        state.apply(dir);
 
-        // Check each point surrounding the current point
-        for (Direction dir : Direction.values()) {
-            // Calculate the new point to check
-            Point newPoint = cur.offset(dir);
-
-            // If it is already used, just skip it
-            if (used.contains(newPoint)) {
-                continue;
-            }
+        // The Tile next to the empty Tile slid into its old cell
+        positions[state.get(from)] = from;
+        positions[BoardState.EMPTY] = state.emptyPos();
+        plan.add(dir);
+    }
 
-            // Get the new Tile
-            // If it is null/out of bounds, just skip it
-            Tile t = board.getTile(newPoint.x(), newPoint.y());
-            if (t == null) {
-                continue;
-            }
+    // Check if (x, y) is on the board
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < 4 && y >= 0 && y < 4;
+    }
 
-            // If the point is immovable, skip it
-            if (t.value() <= maxSortedValue + 1) {
-                continue;
-            }
+    // Get the index of the cell at (x, y)
+    private int cell(int x, int y) {
+        return y * 4 + x;
+    }
 
-            // Call tryAllDirections again with the new point
-            try {
-                tryAllDirections(newPoint, goal, directions, used);
-            }
-            // If an excpetion is thrown, this path is a dead end
-            catch (PathNotFoundExcpetion ex) {
-                continue;
-            }
+    // Get the value of the Tile at (x, y), using -1 for the empty Tile like Tile does
+    private int valueAt(int x, int y) {
+        int v = state.get(x, y);
+        return v == BoardState.EMPTY ? -1 : v;
+    }
 
-            // If it isn't, start building the direction list
-            directions.add(dir);
-            return;
-        }
+    // Get the index of the cell holding a Tile
+    private int positionOf(int value) {
+        return positions[value];
+    }
 
-        // If this point is reached, this point is a dead end
-        // Throw an error if a dead-end is found
-        throw new PathNotFoundExcpetion();
+    // Get the coordinates of a Tile
+    private Point pointOf(int value) {
+        int pos = positionOf(value);
+        return new Point(pos % 4, pos / 4);
     }
 
     // Calculate the taxicab distance between 2 points
@@ -666,11 +598,10 @@ public class Solver {
         }
 
         // Get the Tile and its current position
-        Tile cur = board.getTile(num);
-        Point curPos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point curPos = pointOf(num);
 
         // Find the 2x2 with cur in it
-        Point square = find2x2Pos(cur);
+        Point square = find2x2Pos(num);
 
         // Get the goal position for the Tile
         Point finalGoal = switch (num) {
@@ -775,8 +706,7 @@ public class Solver {
         }
 
         // Get the Tile and its current position
-        Tile cur = board.getTile(num);
-        Point curPos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point curPos = pointOf(num);
 
         // Get the final goal position
         Point finalGoal = switch (num) {
@@ -791,8 +721,18 @@ public class Solver {
             return true;
         }
 
+        // If the empty Tile is at the final goal and the Tile is
+        //   right below it, the only way out for the empty Tile is
+        //   through the Tile, which would push it out of the 2x2
+        // Slide the Tile straight up into place instead
+        if (curPos.equals(finalGoal.offset(0, 1))
+                && state.emptyPos() == cell(finalGoal.x(), finalGoal.y())) {
+            move(BoardState.DOWN);
+            return true;
+        }
+
         // Find the 2x2 with cur in it
-        Point square = find2x2Pos(cur);
+        Point square = find2x2Pos(num);
 
         // Get the stage 1 goal position of the Tile
         // The state 1 goal is 2 spots below the statge 2/final goal position
@@ -900,11 +840,10 @@ public class Solver {
     //   and false otherwise
     private boolean move10TowardsDestination() {
         // Get the Tile and its current position
-        Tile cur = board.getTile(10);
-        Point curPos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point curPos = pointOf(10);
 
         // Find the 2x2 with cur in it
-        Point square = find2x2Pos(cur);
+        Point square = find2x2Pos(10);
 
         // Get the goal position for the Tile
         Point finalGoal = new Point(1, 2);
@@ -1001,7 +940,7 @@ public class Solver {
             moveEmptyToPosition(1, 3);
 
             // Spin 10 into place
-            rotate2x2(1, 2, GridPane.getColumnIndex(cur)-1, GridPane.getRowIndex(cur)-2, 0, 0);
+            rotate2x2(1, 2, pointOf(10).x()-1, pointOf(10).y()-2, 0, 0);
         }
 
         return false;
@@ -1010,11 +949,10 @@ public class Solver {
     // Move the 11 Tile towards its proper position
     private boolean move11TowardsDestination() {
         // Get the Tile and its current position
-        Tile cur = board.getTile(11);
-        Point curPos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point curPos = pointOf(11);
 
         // Find the 2x2 with cur in it
-        Point square = find2x2Pos(cur);
+        Point square = find2x2Pos(11);
 
         // Get the goal position for the Tile
         Point finalGoal = new Point(2, 2);
@@ -1030,7 +968,7 @@ public class Solver {
         //   above the 11 Tile
         // The edge case technically isn't required to be accounted for, but
         //   I wanted to account for it
-        Point emptyPos = new Point(GridPane.getColumnIndex(empty), GridPane.getRowIndex(empty));
+        Point emptyPos = new Point(state.emptyPos() % 4, state.emptyPos() / 4);
         if (curPos.equals(2, 3) && !emptyPos.equals(2, 2)) {
             // Move the empty Tile into the 2x3 with the 11
             //   if necessary
@@ -1058,7 +996,7 @@ public class Solver {
             // Spin the 11 into place
             //rotate2x2(2, 2, GridPane.getColumnIndex(cur)-2, GridPane.getRowIndex(cur)-2, 0, 0);
 
-            return finalGoal.equals(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+            return finalGoal.equals(pointOf(11));
         }
         // Check if 11 can be solved by a 2x4
         else if (curPos.equals(0, 3) || curPos.equals(1, 3)) {
@@ -1145,8 +1083,7 @@ public class Solver {
     // Move the 12 Tile towards its proper position
     private boolean move12TowardsDestination() {
         // Get the Tile and its current position
-        Tile cur = board.getTile(12);
-        Point curPos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point curPos = pointOf(12);
 
         // Get the goal position for the Tile
         Point finalGoal = new Point(3, 2);
@@ -1157,6 +1094,15 @@ public class Solver {
             return true;
         }
 
+        // If the empty Tile is below 9 and 12 is next to it,
+        //   12 is already next to 9 in the cycle, and spinning
+        //   it into place would just bring it back here
+        // Slide it below 9 so the case below handles it
+        if (curPos.equals(1, 3) && state.emptyPos() == cell(0, 3)) {
+            move(BoardState.RIGHT);
+            curPos = pointOf(12);
+        }
+
         // If 12 is directly below 9, spin stuff so that
         //   it isn't anymore
         if (curPos.equals(0, 3)) {
@@ -1182,7 +1128,7 @@ public class Solver {
             moveEmptyToPosition(1, 2);
 
             // Rotate the 2x2 with 12 until it lines up with 11
-            Point tilePos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+            Point tilePos = pointOf(12);
             rotate2x2(new Point(0, 2), tilePos.subtract(0, 2), new Point(1, 1));
 
             // Rotate the 2x4 until 9 is back in its place
@@ -1194,16 +1140,13 @@ public class Solver {
 
     // Move 13, 14, 15 towards their proper positions
     private boolean moveFinal3TowardsDestination() {
-        // Get the 15 Tile
-        Tile cur = board.getTile(15);
-
         // Rotate the bottom half until 9-12 are in
         //   a single 2x2
         rotate2x4(0, 2, 0, 0, 2, 0);
 
         // Spin the 2x2 with 13-15 until 15 touches
         //   the 12
-        Point tilePos = new Point(GridPane.getColumnIndex(cur), GridPane.getRowIndex(cur));
+        Point tilePos = pointOf(15);
         rotate2x2(new Point(0, 2), tilePos.subtract(0, 2), new Point(1, 1));
 
         // Rotate the 2x4 until 15 is in its spot
@@ -1212,16 +1155,32 @@ public class Solver {
         return true;
     }
 
+    // Make the next step of the solution on the Board
+    // Each click sorts at most one more Tile, so the moves are
+    //   played on the Board in one go
+    // Boards that aren't 4x4 are solved in one click by ReductionSolver
+    // Either way MoveOptimizer takes out wasted moves before they're played
     public static void solve(Board board) {
-        Solver s = new Solver(board);
+        if (board.getColumns() != 4 || board.getRows() != 4) {
+            GridState start = board.getGridState();
+            board.playMoves(MoveOptimizer.optimize(start, ReductionSolver.plan(start)));
+            return;
+        }
+        BoardState start = board.getState();
+        board.playMoves(MoveOptimizer.optimize(start, plan(start, false)));
+    }
 
-        boolean solveInOneClick = false;
+    // Plan the moves that solve a board without touching any Tiles
+    // If solveInOneClick is false, planning stops after the first
+    //   step that doesn't sort a Tile, like a single click of Solve
+    public static byte[] plan(BoardState start, boolean solveInOneClick) {
+        Solver s = new Solver(start);
 
         // Solve 1-3
         for (int i = 1; i <= 3; i++) {
             while (!s.moveUpperLeftTowardsDestination(i)) {
                 if (!solveInOneClick) {
-                    return;
+                    return s.plan.toArray();
                 }
             }
             s.maxSortedValue++;
@@ -1230,7 +1189,7 @@ public class Solver {
         // Solve 4
         while (!s.move48TowardsDestination(4)) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1239,7 +1198,7 @@ public class Solver {
         for (int i = 5; i <= 7; i++) {
             while (!s.moveUpperLeftTowardsDestination(i)) {
                 if (!solveInOneClick) {
-                    return;
+                    return s.plan.toArray();
                 }
             }
             s.maxSortedValue++;
@@ -1248,7 +1207,7 @@ public class Solver {
         // Solve 8
         while (!s.move48TowardsDestination(8)) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1256,7 +1215,7 @@ public class Solver {
         // Solve 9
         while (!s.moveUpperLeftTowardsDestination(9)) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1264,7 +1223,7 @@ public class Solver {
         // Solve 10
         while (!s.move10TowardsDestination()) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1272,7 +1231,7 @@ public class Solver {
         // Solve 11
         while (!s.move11TowardsDestination()) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1280,7 +1239,7 @@ public class Solver {
         // Solve 12
         while (!s.move12TowardsDestination()) {
             if (!solveInOneClick) {
-                return;
+                return s.plan.toArray();
             }
         }
         s.maxSortedValue++;
@@ -1288,9 +1247,7 @@ public class Solver {
         // Solve 13,14,15
         s.moveFinal3TowardsDestination();
 
-        // Hacky way to get the win screen to show up
-        // Just click a button that can't be moved
-        board.getTile(1).fire();
+        return s.plan.toArray();
     }
 
     public static void main(String[] args) {
@@ -1305,10 +1262,6 @@ record Point(int x, int y) {
         return new Point(x + dx, y + dy);
     }
 
-    public Point offset(Direction d) {
-        return new Point(x + d.getX(), y + d.getY());
-    }
-
     public boolean equals(Point p) {
         return p.x() == x && p.y() == y;
     }
@@ -1326,38 +1279,3 @@ record Point(int x, int y) {
         return new Point(x() - px, y() - py);
     }
 }
-
-// Handle directions for the solver
-enum Direction {
-    // Since the y-axis is flipped, visual up actually has a negative y component
-    // This is reflect in the enum values
-    UP (0, -1),
-    DOWN (0, 1),
-    LEFT (-1, 0),
-    RIGHT (1, 0);
-
-    private final Point direction;
-
-    private Direction(Point pos) {
-        this.direction = pos;
-    }
-
-    private Direction(int x, int y) {
-        this.direction = new Point(x, y);
-    }
-
-    public Point getDirection() {
-        return direction;
-    }
-
-    public int getX() {
-        return direction.x();
-    }
-
-    public int getY() {
-        return direction.y();
-    }
-}
-
-// Excpetion for when a dead end is found
-class PathNotFoundExcpetion extends Exception {}
\ No newline at end of file
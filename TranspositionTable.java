@@ -0,0 +1,261 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the best lower bound found so far on the number of moves left
+ * to solve a board, shared by every search thread without locks.
+ *
+ * Each entry is two longs: a data word with the bound, and a check word
+ * holding the packed board xor a 64 bit hash of the data word. A reader
+ * only trusts an entry if the check word matches the board it asked for and
+ * the data word it read. A reader can see a new check word with an old
+ * data word, or two writers can leave one's check word with the other's
+ * data. Either way the hash scrambles the pair, so it reads as a miss
+ * rather than as some other board's bound. Writers claim an entry with a
+ * compare and set on its check word. Entries are grouped in buckets of 4
+ * that fit in one cache line, and a full bucket replaces the entry that
+ * saved the least work, preferring entries from earlier searches.
+ */
+public class TranspositionTable
+{
+    // Entries looked at for each board
+    private static final int BUCKET = 4;
+
+    // Longs per entry, the check word then the data word
+    private static final int WORDS = 2;
+
+    // Data word layout, with a flag so a used data word is never 0
+    private static final int BOUND_BITS = 8;
+    private static final int AGE_SHIFT = 8;
+    private static final int WORK_SHIFT = 16;
+    private static final long USED = 1L << 32;
+
+    // The largest value that fits in the bound and work fields
+    private static final int MAX_BOUND = (1 << BOUND_BITS) - 1;
+    private static final int MAX_WORK = 0xFFFF;
+
+    private final AtomicLongArray table;
+
+    // The number of buckets minus 1, for masking hashes
+    private final int mask;
+
+    // Stamped on every entry written, so a new search can tell old entries apart
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Create a TranspositionTable that uses at most the given amount of memory
+     * @param maxBytes the most memory the table may take, at least 64 bytes
+     * @throws IllegalArgumentException if maxBytes is too small or too big
+     */
+    public TranspositionTable(long maxBytes)
+    {
+        long buckets = maxBytes / (BUCKET * WORDS * Long.BYTES);
+        if (buckets < 1)
+        {
+            throw new IllegalArgumentException("maxBytes must be at least " + BUCKET * WORDS * Long.BYTES);
+        }
+
+        // Round down to a power of 2 that an int can index
+        buckets = Long.highestOneBit(buckets);
+        if (buckets * BUCKET * WORDS > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("maxBytes is too big for one table");
+        }
+        table = new AtomicLongArray((int) buckets * BUCKET * WORDS);
+        mask = (int) buckets - 1;
+    }
+
+    /**
+     * Get the stored lower bound for a board
+     * @param packed the packed board
+     * @param hash   the board's Zobrist hash
+     * @return the number of moves the board needs at least, or -1 if it isn't stored
+     */
+    public int get(long packed, long hash)
+    {
+        int base = bucket(hash);
+        for (int i = 0; i < BUCKET; i++)
+        {
+            int slot = base + i * WORDS;
+            long data = table.getAcquire(slot + 1);
+            if (data != 0 && table.getAcquire(slot) == check(packed, data) && table.getAcquire(slot + 1) == data)
+            {
+                hits.increment();
+                return (int) data & MAX_BOUND;
+            }
+        }
+        misses.increment();
+        return -1;
+    }
+
+    /**
+     * Store a lower bound for a board, keeping the larger bound if there already is one
+     * @param packed the packed board
+     * @param hash   the board's Zobrist hash
+     * @param bound  the number of moves the board needs at least
+     * @param work   how much searching the bound saves, like the depth that
+     *               was searched below the board, used to pick what to replace
+     */
+    public void put(long packed, long hash, int bound, int work)
+    {
+        int base = bucket(hash);
+        int currentAge = age;
+        long data = USED
+                | (long) Math.min(work, MAX_WORK) << WORK_SHIFT
+                | (long) (currentAge & 0xFF) << AGE_SHIFT
+                | Math.min(bound, MAX_BOUND);
+
+        // Look for the board itself, then pick the cheapest entry to replace
+        int victim = -1;
+        int victimScore = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET; i++)
+        {
+            int slot = base + i * WORDS;
+            long old = table.getOpaque(slot + 1);
+            if (old == 0)
+            {
+                if (victimScore > -1)
+                {
+                    victim = slot;
+                    victimScore = -1;
+                }
+                continue;
+            }
+
+            long check = table.getOpaque(slot);
+            if (check == check(packed, old))
+            {
+                if (((int) old & MAX_BOUND) >= bound)
+                {
+                    return;
+                }
+                write(slot, check, packed, data);
+                return;
+            }
+
+            // Entries from this search are worth more than anything older
+            int score = (int) (old >>> WORK_SHIFT) & MAX_WORK;
+            if (((int) (old >>> AGE_SHIFT) & 0xFF) == (currentAge & 0xFF))
+            {
+                score += MAX_WORK + 1;
+            }
+            if (score < victimScore)
+            {
+                victim = slot;
+                victimScore = score;
+            }
+        }
+
+        if (victimScore >= 0)
+        {
+            collisions.increment();
+        }
+        write(victim, table.getOpaque(victim), packed, data);
+    }
+
+    // Claim a slot with a compare and set on its check word, then fill in the data
+    // If another thread got there first, its entry is kept and this one is dropped
+    private void write(int slot, long expectedCheck, long packed, long data)
+    {
+        if (table.compareAndSet(slot, expectedCheck, check(packed, data)))
+        {
+            table.setRelease(slot + 1, data);
+            stores.increment();
+        }
+    }
+
+    // The check word for a board and its data word
+    private static long check(long packed, long data)
+    {
+        return packed ^ BoardState.hash(data);
+    }
+
+    // Index of the first long in a hash's bucket
+    private int bucket(long hash)
+    {
+        // The high bits are mixed best in a Zobrist hash
+        return ((int) (hash >>> 32) & mask) * BUCKET * WORDS;
+    }
+
+    /**
+     * Start a new search, so entries from earlier searches are replaced first.
+     * Their bounds are still right and keep being used until they are replaced.
+     */
+    public void newSearch()
+    {
+        age++;
+    }
+
+    /**
+     * Remove every entry and reset the counters
+     */
+    public void clear()
+    {
+        for (int i = 0; i < table.length(); i++)
+        {
+            table.setOpaque(i, 0);
+        }
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    /**
+     * Get the number of entries the table can hold
+     * @return the capacity in entries
+     */
+    public int capacity()
+    {
+        return table.length() / WORDS;
+    }
+
+    /**
+     * Get the number of lookups that found their board
+     * @return the number of hits
+     */
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that didn't find their board
+     * @return the number of misses
+     */
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of stores that had to replace a different board
+     * @return the number of collisions
+     */
+    public long collisions()
+    {
+        return collisions.sum();
+    }
+
+    /**
+     * Get the number of entries written
+     * @return the number of stores
+     */
+    public long stores()
+    {
+        return stores.sum();
+    }
+
+    public String toString()
+    {
+        long h = hits();
+        long total = h + misses();
+        return String.format("%d entries, %.1f%% hits of %d lookups, %d stores, %d collisions",
+                capacity(), total == 0 ? 0.0 : 100.0 * h / total, total, stores(), collisions());
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Walking distance, a much stronger estimate than the taxicab distance for
+ * 4x4 boards, from a small table built once by breadth first search.
+ *
+ * For up and down moves, all that matters is how many Tiles in each row
+ * belong in each row, plus which row the empty cell is in. Each up or down
+ * move swaps the empty cell with a Tile from the row above or below, and a
+ * breadth first search over every such count table gives the exact number
+ * of up and down moves needed to get the counts right. There are only
+ * 24,964 of them. Left and right moves are the same problem on the board's
+ * transpose, with columns in place of rows, so the same table serves both.
+ * No move counts towards both, so the two add up to a lower bound.
+ *
+ * Tiles in the same row are indistinguishable here, so walking distance
+ * catches Tiles that are blocked by each other in ways the taxicab
+ * distance doesn't, but it misses conflicts within a row. Combine it with
+ * MaxHeuristic to take the best of several estimates.
+ */
+public class WalkingDistanceHeuristic implements Heuristic
+{
+    // Each count of Tiles in a row that belong in a row gets 3 bits, at
+    // (row * WIDTH + goal row) * 3, and the row of the empty cell goes above them
+    private static final int EMPTY_SHIFT = 48;
+
+    // The number of count tables that can be reached
+    private static final int STATES = 24964;
+
+    // The packed count tables for rows, then for columns, that each Tile
+    // value adds in each position. For the empty cell it is its row or column.
+    private static final long[][] ROW_CODE = new long[BoardState.SIZE][BoardState.SIZE];
+    private static final long[][] COLUMN_CODE = new long[BoardState.SIZE][BoardState.SIZE];
+
+    // The fewest up and down moves for each packed count table
+    private static final LongIntMap DISTANCE = new LongIntMap(STATES);
+
+    static
+    {
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int x = pos % BoardState.WIDTH;
+            int y = pos / BoardState.WIDTH;
+            ROW_CODE[0][pos] = (long) y << EMPTY_SHIFT;
+            COLUMN_CODE[0][pos] = (long) x << EMPTY_SHIFT;
+            for (int v = 1; v < BoardState.SIZE; v++)
+            {
+                int gx = (v - 1) % BoardState.WIDTH;
+                int gy = (v - 1) / BoardState.WIDTH;
+                ROW_CODE[v][pos] = 1L << ((y * BoardState.WIDTH + gy) * 3);
+                COLUMN_CODE[v][pos] = 1L << ((x * BoardState.WIDTH + gx) * 3);
+            }
+        }
+
+        // The solved board's table, then every table in order of distance
+        BoardState start = new BoardState();
+        long solved = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            solved += ROW_CODE[start.get(pos)][pos];
+        }
+        long[] queue = new long[STATES];
+        int tail = 0;
+        queue[tail++] = solved;
+        DISTANCE.put(solved, 0);
+
+        for (int head = 0; head < tail; head++)
+        {
+            long code = queue[head];
+            int d = DISTANCE.get(code);
+            int empty = (int) (code >>> EMPTY_SHIFT);
+            for (int row = empty - 1; row <= empty + 1; row += 2)
+            {
+                if (row < 0 || row >= BoardState.HEIGHT)
+                {
+                    continue;
+                }
+
+                // Any Tile in the next row can move into the empty cell, and
+                // which one only matters through the row it belongs in
+                for (int goal = 0; goal < BoardState.HEIGHT; goal++)
+                {
+                    int from = (row * BoardState.WIDTH + goal) * 3;
+                    if (((code >>> from) & 7) == 0)
+                    {
+                        continue;
+                    }
+                    int to = (empty * BoardState.WIDTH + goal) * 3;
+                    long next = code - (1L << from) + (1L << to)
+                            + ((long) (row - empty) << EMPTY_SHIFT);
+                    if (DISTANCE.get(next) < 0)
+                    {
+                        DISTANCE.put(next, d + 1);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int estimate(BoardState state)
+    {
+        long rows = 0;
+        long columns = 0;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int v = state.get(pos);
+            rows += ROW_CODE[v][pos];
+            columns += COLUMN_CODE[v][pos];
+        }
+        return DISTANCE.get(rows) + DISTANCE.get(columns);
+    }
+
+    /**
+     * Get the number of count tables walking distance is built from
+     * @return the number of entries in the table
+     */
+    public static int tableSize()
+    {
+        return DISTANCE.size();
+    }
+
+    /**
+     * Compare the nodes IDA* expands on random boards with the taxicab
+     * distance and linear conflicts against walking distance and inversion
+     * distance combined with it
+     * Usage: java WalkingDistanceHeuristic [boards] [seed]
+     * @param args the optional number of boards and seed
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        Heuristic[] heuristics = {
+            new ManhattanHeuristic(),
+            new MaxHeuristic(new WalkingDistanceHeuristic(), new InversionDistanceHeuristic()),
+            new MaxHeuristic(new ManhattanHeuristic(), new WalkingDistanceHeuristic(), new InversionDistanceHeuristic())
+        };
+        String[] names = {"manhattan", "max(wd, id)", "max(manhattan, wd, id)"};
+        System.out.printf("Walking distance table has %,d entries%n", tableSize());
+
+        long[] nodes = new long[heuristics.length];
+        long[] nanos = new long[heuristics.length];
+        BoardGenerator generator = new BoardGenerator(seed);
+        for (int b = 0; b < count; b++)
+        {
+            BoardState board = generator.next();
+            int length = -1;
+            for (int i = 0; i < heuristics.length; i++)
+            {
+                SolveResult result = new IDASolver(heuristics[i]).solve(board);
+                if (length >= 0 && result.moves().length != length)
+                {
+                    System.out.printf("Board %d: %s found %d moves, not %d%n", b, names[i], result.moves().length, length);
+                    System.exit(1);
+                }
+                length = result.moves().length;
+                nodes[i] += result.nodes();
+                nanos[i] += result.nanos();
+            }
+        }
+
+        for (int i = 0; i < heuristics.length; i++)
+        {
+            System.out.printf("%-24s %,15d nodes %8.2f s %6.1f M nodes/s%n", names[i], nodes[i],
+                    nanos[i] / 1e9, nodes[i] / (nanos[i] / 1e3));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Platform;
+
+/**
+ * Fixed-seed boards shared by the benchmarks so runs can be compared
+ */
+final class BenchmarkBoards
+{
+    // Every corpus is built from this seed
+    static final long SEED = 42;
+
+    private BenchmarkBoards()
+    {
+    }
+
+    /**
+     * Scramble count solved boards with random moves from a fixed seed
+     * @param count the number of boards
+     * @param moves how many random moves to scramble each board with
+     * @return the scrambled boards
+     */
+    static BoardState[] corpus(int count, int moves)
+    {
+        Random rand = new Random(SEED);
+        BoardState[] boards = new BoardState[count];
+        for (int i = 0; i < count; i++)
+        {
+            BoardState s = new BoardState();
+            int prev = -1;
+            for (int m = 0; m < moves; m++)
+            {
+                int dir;
+                do
+                {
+                    dir = rand.nextInt(4);
+                } while (!s.canMove(dir) || dir == (prev ^ 1));
+                s.apply(dir);
+                prev = dir;
+            }
+            boards[i] = s;
+        }
+        return boards;
+    }
+
+    /**
+     * Shuffle count solvable boards of any size from a fixed seed
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param count  the number of boards
+     * @return the shuffled boards
+     */
+    static GridState[] gridCorpus(int width, int height, int count)
+    {
+        BoardGenerator generator = new BoardGenerator(SEED);
+        GridState[] boards = new GridState[count];
+        for (int i = 0; i < count; i++)
+        {
+            boards[i] = generator.nextGrid(width, height);
+        }
+        return boards;
+    }
+
+    /**
+     * Build a JavaFX Board with the same Tiles as a BoardState, the same way App does
+     * @param state the board to copy
+     * @return a new Board
+     */
+    static Board toBoard(BoardState state)
+    {
+        ArrayList<Tile> tiles = new ArrayList<>();
+        Tile empty = null;
+        for (int pos = 0; pos < BoardState.SIZE; pos++)
+        {
+            int v = state.get(pos);
+            Tile t = new Tile(v == BoardState.EMPTY ? -1 : v);
+            if (v == BoardState.EMPTY)
+            {
+                empty = t;
+            }
+            tiles.add(t);
+        }
+
+        Board b = new Board(tiles);
+        for (Tile t : tiles)
+        {
+            t.setBoard(b);
+        }
+        b.setEmptyTile(empty);
+        return b;
+    }
+
+    /**
+     * Start the JavaFX toolkit so Tiles can be created, if it isn't running yet
+     */
+    static void startToolkit()
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        try
+        {
+            Platform.startup(started::countDown);
+            started.await();
+        }
+        catch (IllegalStateException ex)
+        {
+            // Already running
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
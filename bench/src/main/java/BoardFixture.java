@@ -0,0 +1,80 @@
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.Fixtures;
+
+public class BoardFixture implements Fixtures.BoardOps
+{
+    private Board[] boards;
+
+    // A Tile next to the empty Tile on each board
+    private Tile[] movable;
+
+    private int next;
+
+    @Override
+    public void setup(int corpusSize)
+    {
+        BenchmarkBoards.startToolkit();
+
+        BoardState[] states = BenchmarkBoards.corpus(corpusSize, 100);
+        boards = new Board[corpusSize];
+        movable = new Tile[corpusSize];
+        for (int i = 0; i < corpusSize; i++)
+        {
+            boards[i] = BenchmarkBoards.toBoard(states[i]);
+
+            // Find a neighbor of the empty cell
+            BoardState s = states[i];
+            int dir = Integer.numberOfTrailingZeros(s.moves());
+            int empty = s.emptyPos();
+            movable[i] = boards[i].getTile(empty % BoardState.WIDTH + BoardState.dx(dir),
+                    empty / BoardState.WIDTH + BoardState.dy(dir));
+        }
+    }
+
+    // Cycle through the corpus
+    private int nextIndex()
+    {
+        next = (next + 1) % boards.length;
+        return next;
+    }
+
+    // Look up every position once
+    @Override
+    public void getTileByPosition(Blackhole bh)
+    {
+        Board b = boards[nextIndex()];
+        for (int y = 0; y < BoardState.HEIGHT; y++)
+        {
+            for (int x = 0; x < BoardState.WIDTH; x++)
+            {
+                bh.consume(b.getTile(x, y));
+            }
+        }
+    }
+
+    // Look up every value once
+    @Override
+    public void getTileByValue(Blackhole bh)
+    {
+        Board b = boards[nextIndex()];
+        for (int v = 1; v < BoardState.SIZE; v++)
+        {
+            bh.consume(b.getTile(v));
+        }
+    }
+
+    // Swap a Tile into the empty cell and back so the board is unchanged
+    @Override
+    public boolean swapTile()
+    {
+        int i = nextIndex();
+        return boards[i].swapTile(movable[i]) & boards[i].swapTile(movable[i]);
+    }
+
+    @Override
+    public boolean check()
+    {
+        return boards[nextIndex()].check();
+    }
+}
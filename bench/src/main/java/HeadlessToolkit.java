@@ -0,0 +1,505 @@
+import com.sun.glass.ui.CommonDialogs;
+import com.sun.glass.ui.GlassRobot;
+import com.sun.javafx.embed.HostInterface;
+import com.sun.javafx.geom.Path2D;
+import com.sun.javafx.geom.Shape;
+import com.sun.javafx.geom.transform.BaseTransform;
+import com.sun.javafx.perf.PerformanceTracker;
+import com.sun.javafx.runtime.async.AsyncOperation;
+import com.sun.javafx.runtime.async.AsyncOperationListener;
+import com.sun.javafx.scene.text.TextLayoutFactory;
+import com.sun.javafx.text.PrismTextLayoutFactory;
+import com.sun.javafx.tk.AppletWindow;
+import com.sun.javafx.tk.FileChooserType;
+import com.sun.javafx.tk.FontLoader;
+import com.sun.javafx.tk.ImageLoader;
+import com.sun.javafx.tk.PlatformImage;
+import com.sun.javafx.tk.RenderJob;
+import com.sun.javafx.tk.ScreenConfigurationAccessor;
+import com.sun.javafx.tk.TKClipboard;
+import com.sun.javafx.tk.TKDragGestureListener;
+import com.sun.javafx.tk.TKDragSourceListener;
+import com.sun.javafx.tk.TKDropTargetListener;
+import com.sun.javafx.tk.TKScene;
+import com.sun.javafx.tk.TKScreenConfigurationListener;
+import com.sun.javafx.tk.TKStage;
+import com.sun.javafx.tk.TKSystemMenu;
+import com.sun.javafx.tk.Toolkit;
+import com.sun.scenario.DelayedRunnable;
+import com.sun.scenario.animation.AbstractPrimaryTimer;
+import com.sun.scenario.effect.FilterContext;
+import com.sun.scenario.effect.Filterable;
+import java.io.File;
+import java.io.InputStream;
+import java.security.AccessControlContext;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+import javafx.scene.input.Dragboard;
+import javafx.scene.input.InputMethodRequests;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.TransferMode;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.shape.StrokeType;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+
+/**
+ * A JavaFX toolkit with no windows, for running the Board benchmarks
+ * without a display. Tiles are Buttons, and a Control can't be made until
+ * a toolkit is running, but the Boards are never shown, so nothing needs
+ * drawing. Select it with -Djavafx.toolkit=HeadlessToolkit before the
+ * toolkit starts.
+ *
+ * Runnables passed to Platform.runLater run in order on one daemon thread,
+ * like the real FX thread. Everything that would draw, open a window or
+ * talk to the platform does nothing and returns null, false or 0.
+ */
+@SuppressWarnings("removal")
+public class HeadlessToolkit extends Toolkit
+{
+    // Work for the FX thread
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+    private PerformanceTracker tracker;
+
+    @Override
+    public void accumulateStrokeBounds(Shape shape, float[] floats, StrokeType strokeType, double d, StrokeLineCap strokeLineCap, StrokeLineJoin strokeLineJoin, float f, BaseTransform baseTransform)
+    {
+    }
+
+    @Override
+    public Future<?> addRenderJob(RenderJob renderJob)
+    {
+        return null;
+    }
+
+    @Override
+    public boolean canStartNestedEventLoop()
+    {
+        return false;
+    }
+
+    @Override
+    public void closeAppletWindow()
+    {
+    }
+
+    @Override
+    public PathElement[] convertShapeToFXPath(Object object)
+    {
+        return null;
+    }
+
+    @Override
+    public AppletWindow createAppletWindow(long n, String string)
+    {
+        return null;
+    }
+
+    @Override
+    protected Object createColorPaint(Color color)
+    {
+        return null;
+    }
+
+    @Override
+    protected Object createImagePatternPaint(ImagePattern imagePattern)
+    {
+        return null;
+    }
+
+    @Override
+    protected Object createLinearGradientPaint(LinearGradient linearGradient)
+    {
+        return null;
+    }
+
+    @Override
+    public PerformanceTracker createPerformanceTracker()
+    {
+        return getPerformanceTracker();
+    }
+
+    @Override
+    public PlatformImage createPlatformImage(int n, int n2)
+    {
+        return null;
+    }
+
+    @Override
+    protected Object createRadialGradientPaint(RadialGradient radialGradient)
+    {
+        return null;
+    }
+
+    @Override
+    public GlassRobot createRobot()
+    {
+        return null;
+    }
+
+    @Override
+    public Path2D createSVGPath2D(SVGPath svgPath)
+    {
+        return null;
+    }
+
+    @Override
+    public Object createSVGPathObject(SVGPath svgPath)
+    {
+        return null;
+    }
+
+    @Override
+    public Shape createStrokedShape(Shape shape, StrokeType strokeType, double d, StrokeLineCap strokeLineCap, StrokeLineJoin strokeLineJoin, float f, float[] floats, float f2)
+    {
+        return null;
+    }
+
+    @Override
+    public TKStage createTKEmbeddedStage(HostInterface hostInterface, AccessControlContext context)
+    {
+        return null;
+    }
+
+    @Override
+    public TKStage createTKPopupStage(Window window, StageStyle stageStyle, TKStage owner, AccessControlContext context)
+    {
+        return null;
+    }
+
+    @Override
+    public TKStage createTKStage(Window window, boolean securityDialog, StageStyle stageStyle, boolean primary, Modality modality, TKStage owner, boolean rtl, AccessControlContext context)
+    {
+        return null;
+    }
+
+    @Override
+    public void defer(Runnable runnable)
+    {
+        tasks.add(runnable);
+    }
+
+    @Override
+    public void enableDrop(TKScene scene, TKDropTargetListener listener)
+    {
+    }
+
+    @Override
+    public Object enterNestedEventLoop(Object object)
+    {
+        return null;
+    }
+
+    @Override
+    public void exitAllNestedEventLoops()
+    {
+    }
+
+    @Override
+    public void exitNestedEventLoop(Object object, Object object2)
+    {
+    }
+
+    @Override
+    public Dimension2D getBestCursorSize(int n, int n2)
+    {
+        return null;
+    }
+
+    @Override
+    public Map<Object, Object> getContextMap()
+    {
+        return null;
+    }
+
+    @Override
+    public FilterContext getFilterContext(Object object)
+    {
+        return null;
+    }
+
+    @Override
+    public FontLoader getFontLoader()
+    {
+        return null;
+    }
+
+    @Override
+    public int getKeyCodeForChar(String string)
+    {
+        return 0;
+    }
+
+    @Override
+    public int getMaximumCursorColors()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getMultiClickMaxX()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getMultiClickMaxY()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getMultiClickTime()
+    {
+        return 0;
+    }
+
+    @Override
+    public TKClipboard getNamedClipboard(String string)
+    {
+        return null;
+    }
+
+    @Override
+    public synchronized PerformanceTracker getPerformanceTracker()
+    {
+        // Made on first use, since Toolkit asks for it while still starting up
+        if (tracker == null)
+        {
+            tracker = new PerformanceTracker()
+            {
+                @Override
+                protected long nanoTime()
+                {
+                    return System.nanoTime();
+                }
+
+                @Override
+                public void doOutputLog()
+                {
+                }
+
+                @Override
+                public void doLogEvent(String s)
+                {
+                }
+            };
+        }
+        return tracker;
+    }
+
+    @Override
+    public Object getPrimaryScreen()
+    {
+        return null;
+    }
+
+    @Override
+    public AbstractPrimaryTimer getPrimaryTimer()
+    {
+        return null;
+    }
+
+    @Override
+    public int getRefreshRate()
+    {
+        return 0;
+    }
+
+    @Override
+    public ScreenConfigurationAccessor getScreenConfigurationAccessor()
+    {
+        return null;
+    }
+
+    @Override
+    public List<?> getScreens()
+    {
+        return null;
+    }
+
+    @Override
+    public TKClipboard getSystemClipboard()
+    {
+        return null;
+    }
+
+    @Override
+    public TKSystemMenu getSystemMenu()
+    {
+        return null;
+    }
+
+    @Override
+    public TextLayoutFactory getTextLayoutFactory()
+    {
+        // Pure Java, and needed to load the default style sheet
+        return PrismTextLayoutFactory.getFactory();
+    }
+
+    @Override
+    public boolean imageContains(Object object, float f, float f2)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean init()
+    {
+        return true;
+    }
+
+    @Override
+    public void installInputMethodRequests(TKScene scene, InputMethodRequests inputMethodRequests)
+    {
+    }
+
+    @Override
+    public boolean isBackwardTraversalKey(KeyEvent keyEvent)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isForwardTraversalKey(KeyEvent keyEvent)
+    {
+        return false;
+    }
+
+    @Override
+    public Optional<Boolean> isKeyLocked(KeyCode keyCode)
+    {
+        return null;
+    }
+
+    @Override
+    public boolean isNestedLoopRunning()
+    {
+        return false;
+    }
+
+    @Override
+    public ImageLoader loadImage(String string, double d, double d2, boolean flag, boolean flag2)
+    {
+        return null;
+    }
+
+    @Override
+    public ImageLoader loadImage(InputStream inputStream, double d, double d2, boolean flag, boolean flag2)
+    {
+        return null;
+    }
+
+    @Override
+    public AsyncOperation loadImageAsync(AsyncOperationListener<? extends ImageLoader> asyncOperationListener, String string, double d, double d2, boolean flag, boolean flag2)
+    {
+        return null;
+    }
+
+    @Override
+    public ImageLoader loadPlatformImage(Object object)
+    {
+        return null;
+    }
+
+    @Override
+    public void registerDragGestureListener(TKScene scene, Set<TransferMode> set, TKDragGestureListener dragGestureListener)
+    {
+    }
+
+    @Override
+    public Object renderToImage(ImageRenderingContext imageRenderingContext)
+    {
+        return null;
+    }
+
+    @Override
+    public void requestNextPulse()
+    {
+    }
+
+    @Override
+    public void setAnimationRunnable(DelayedRunnable delayedRunnable)
+    {
+    }
+
+    @Override
+    public ScreenConfigurationAccessor setScreenConfigurationListener(TKScreenConfigurationListener screenConfigurationListener)
+    {
+        return null;
+    }
+
+    @Override
+    public File showDirectoryChooser(TKStage owner, String string, File file)
+    {
+        return null;
+    }
+
+    @Override
+    public CommonDialogs.FileChooserResult showFileChooser(TKStage owner, String string, File file, String string2, FileChooserType fileChooserType, List<FileChooser.ExtensionFilter> list, FileChooser.ExtensionFilter extensionFilter)
+    {
+        return null;
+    }
+
+    @Override
+    public void startDrag(TKScene scene, Set<TransferMode> set, TKDragSourceListener dragSourceListener, Dragboard dragboard)
+    {
+    }
+
+    @Override
+    public void startup(Runnable runnable)
+    {
+        Thread fx = new Thread(() -> {
+            setFxUserThread(Thread.currentThread());
+            runnable.run();
+            try
+            {
+                while (true)
+                {
+                    tasks.take().run();
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                // Exiting
+            }
+        }, "JavaFX Application Thread");
+        fx.setDaemon(true);
+        fx.start();
+    }
+
+    @Override
+    public boolean strokeContains(Shape shape, double d, double d2, StrokeType strokeType, double d3, StrokeLineCap strokeLineCap, StrokeLineJoin strokeLineJoin, float f)
+    {
+        return false;
+    }
+
+    @Override
+    public Filterable toFilterable(Image image)
+    {
+        return null;
+    }
+
+    @Override
+    public void waitFor(Task task)
+    {
+    }
+}
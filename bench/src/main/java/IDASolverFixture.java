@@ -0,0 +1,32 @@
+import benchmarks.Fixtures;
+
+public class IDASolverFixture implements Fixtures.IDASolverOps
+{
+    private BoardState[] states;
+    private IDASolver solver;
+    private int next;
+
+    @Override
+    public void setup(int corpusSize, String heuristic, boolean incremental)
+    {
+        // Short scrambles keep Manhattan distance solves quick
+        states = BenchmarkBoards.corpus(corpusSize, 30);
+        Heuristic h = switch (heuristic)
+        {
+            case "pdb" -> PatternDatabaseHeuristic.defaultHeuristic();
+            case "wd" -> new MaxHeuristic(new ManhattanHeuristic(), new WalkingDistanceHeuristic(),
+                    new InversionDistanceHeuristic());
+            default -> new ManhattanHeuristic();
+        };
+
+        // Wrapping it hides IncrementalHeuristic from the solver
+        solver = new IDASolver(incremental ? h : h::estimate);
+    }
+
+    @Override
+    public Object solve()
+    {
+        next = (next + 1) % states.length;
+        return solver.solve(states[next]);
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.Arrays;
+
+import benchmarks.Fixtures;
+
+public class PatternDatabaseFixture implements Fixtures.PatternDatabaseOps
+{
+    private PatternDatabaseBuilder builder;
+    private int[] tiles;
+
+    @Override
+    public void setup(int threads, String tiles)
+    {
+        builder = new PatternDatabaseBuilder(threads);
+        this.tiles = Arrays.stream(tiles.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    @Override
+    public Object build()
+    {
+        return builder.build(tiles);
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import benchmarks.Fixtures;
+
+public class PatternFormatFixture implements Fixtures.PatternFormatOps
+{
+    private static final int CORPUS_SIZE = 1024;
+
+    private PatternDatabaseHeuristic heuristic;
+    private IDASolver solver;
+
+    // Random boards, each with a move that can be made on it
+    private BoardState[] boards;
+    private int[] moves;
+
+    // Short scrambles so TWO_BIT solves stay quick
+    private BoardState[] scrambles;
+
+    private int next;
+
+    @Override
+    public void setup(String format)
+    {
+        try
+        {
+            heuristic = PatternDatabaseHeuristic.load(Path.of("pdb"), PatternDatabaseHeuristic.PARTITION_663,
+                    PatternDatabase.Format.valueOf(format.toUpperCase()));
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+        solver = new IDASolver(heuristic);
+
+        BoardGenerator generator = new BoardGenerator(BenchmarkBoards.SEED);
+        boards = new BoardState[CORPUS_SIZE];
+        moves = new int[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            boards[i] = generator.next();
+            int dir = i & 3;
+            while (!boards[i].canMove(dir))
+            {
+                dir = (dir + 1) & 3;
+            }
+            moves[i] = dir;
+        }
+        scrambles = BenchmarkBoards.corpus(32, 30);
+    }
+
+    @Override
+    public int lookupDelta()
+    {
+        next = (next + 1) % CORPUS_SIZE;
+        return heuristic.delta(boards[next], moves[next]);
+    }
+
+    @Override
+    public int estimate()
+    {
+        next = (next + 1) % CORPUS_SIZE;
+        return heuristic.estimate(boards[next]);
+    }
+
+    @Override
+    public Object solve()
+    {
+        next = (next + 1) % scrambles.length;
+        return solver.solve(scrambles[next]);
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+import benchmarks.Fixtures;
+
+public class PermutationFixture implements Fixtures.PermutationOps
+{
+    private static final int CORPUS_SIZE = 1024;
+
+    // Pattern Tiles picked, like the 6 Tile pattern databases
+    private static final int PATTERN_TILES = 6;
+
+    private ArrayList<Integer> values;
+
+    // Whole boards as the cell of each value, and their ranks
+    private int[][] boards;
+    private long[] boardRanks;
+
+    // Pattern Tile cells packed 4 bits each, and their ranks
+    private long[] patterns;
+    private long[] patternRanks;
+
+    private final BoardGenerator generator = new BoardGenerator(42);
+
+    // Where unrankBoard puts its result
+    private final int[] scratch = new int[BoardState.SIZE];
+
+    private int next;
+
+    @Override
+    public void setup()
+    {
+        values = new ArrayList<>();
+        for (int i = 1; i < BoardState.SIZE; i++)
+        {
+            values.add(i);
+        }
+
+        Random rand = new Random(42);
+        long boardCount = Permutation.arrangements(BoardState.SIZE, BoardState.SIZE);
+        long patternCount = Permutation.arrangements(BoardState.SIZE, PATTERN_TILES);
+        boards = new int[CORPUS_SIZE][BoardState.SIZE];
+        boardRanks = new long[CORPUS_SIZE];
+        patterns = new long[CORPUS_SIZE];
+        patternRanks = new long[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            boardRanks[i] = Math.floorMod(rand.nextLong(), boardCount);
+            Permutation.unrank(boardRanks[i], boards[i]);
+            patternRanks[i] = Math.floorMod(rand.nextLong(), patternCount);
+            patterns[i] = Permutation.unrankPacked(patternRanks[i], PATTERN_TILES, BoardState.SIZE);
+        }
+    }
+
+    // Cycle through the corpus
+    private int nextIndex()
+    {
+        next = (next + 1) & (CORPUS_SIZE - 1);
+        return next;
+    }
+
+    @Override
+    public Object randomPermutationAndApply()
+    {
+        Permutation p = Permutation.randomPermutation(15, 100);
+        p.applyToList(values);
+        return values;
+    }
+
+    @Override
+    public long generateBoard()
+    {
+        return generator.nextPacked();
+    }
+
+    @Override
+    public long rankBoard()
+    {
+        return Permutation.rank(boards[nextIndex()]);
+    }
+
+    @Override
+    public Object unrankBoard()
+    {
+        Permutation.unrank(boardRanks[nextIndex()], scratch);
+        return scratch;
+    }
+
+    @Override
+    public long rankPattern()
+    {
+        return Permutation.rankPacked(patterns[nextIndex()], PATTERN_TILES, BoardState.SIZE);
+    }
+
+    @Override
+    public long unrankPattern()
+    {
+        return Permutation.unrankPacked(patternRanks[nextIndex()], PATTERN_TILES, BoardState.SIZE);
+    }
+}
@@ -0,0 +1,20 @@
+import benchmarks.Fixtures;
+
+public class ReductionSolverFixture implements Fixtures.ReductionSolverOps
+{
+    private GridState[] states;
+    private int next;
+
+    @Override
+    public void setup(int side, int corpusSize)
+    {
+        states = BenchmarkBoards.gridCorpus(side, side, corpusSize);
+    }
+
+    @Override
+    public Object solve()
+    {
+        next = (next + 1) % states.length;
+        return ReductionSolver.plan(states[next]);
+    }
+}
@@ -0,0 +1,25 @@
+import benchmarks.Fixtures;
+
+public class SolverFixture implements Fixtures.SolverOps
+{
+    private BoardState[] states;
+    private int next;
+
+    @Override
+    public void setup(int corpusSize)
+    {
+        states = BenchmarkBoards.corpus(corpusSize, 100);
+    }
+
+    @Override
+    public void nextBoard()
+    {
+        next = (next + 1) % states.length;
+    }
+
+    @Override
+    public Object solve()
+    {
+        return Solver.plan(states[next], true);
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Board.getTile(x, y), Board.getTile(val), Board.swapTile and Board.check
+ * on a fixed-seed corpus of scrambled Boards. The Boards are never shown,
+ * so the fork runs on HeadlessToolkit and needs no display.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djavafx.toolkit=HeadlessToolkit")
+@State(Scope.Thread)
+public class BoardBenchmark
+{
+    private Fixtures.BoardOps ops;
+
+    @Setup
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.BoardOps.class, "BoardFixture");
+        ops.setup(64);
+    }
+
+    @Benchmark
+    public void getTileByPosition(Blackhole bh)
+    {
+        ops.getTileByPosition(bh);
+    }
+
+    @Benchmark
+    public void getTileByValue(Blackhole bh)
+    {
+        ops.getTileByValue(bh);
+    }
+
+    @Benchmark
+    public boolean swapTile()
+    {
+        return ops.swapTile();
+    }
+
+    @Benchmark
+    public boolean check()
+    {
+        return ops.check();
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH won't generate benchmarks in the default package, and the game's
+ * classes live in the default package where named packages can't see them.
+ * Each benchmark here calls through one of these interfaces instead, which
+ * are implemented by default package fixtures that can use the game's classes
+ * directly. Every call site only ever sees one implementation, so the JIT
+ * inlines straight through it.
+ */
+public final class Fixtures
+{
+    private Fixtures()
+    {
+    }
+
+    /**
+     * Create a default package fixture by name
+     * @param type the interface the fixture implements
+     * @param name the class name of the fixture
+     * @return a new instance of the fixture
+     */
+    public static <T> T load(Class<T> type, String name)
+    {
+        try
+        {
+            return type.cast(Class.forName(name).getDeclaredConstructor().newInstance());
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new IllegalStateException("could not load fixture " + name, ex);
+        }
+    }
+
+    /**
+     * Lookups, swaps and the solved check on a corpus of JavaFX Boards
+     */
+    public interface BoardOps
+    {
+        void setup(int corpusSize);
+        void getTileByPosition(Blackhole bh);
+        void getTileByValue(Blackhole bh);
+        boolean swapTile();
+        boolean check();
+    }
+
+    /**
+     * Scrambling a list the way App.generateBoard used to and shuffling a
+     * board with BoardGenerator, and ranking and unranking whole boards and
+     * pattern positions
+     */
+    public interface PermutationOps
+    {
+        void setup();
+        Object randomPermutationAndApply();
+        long generateBoard();
+        long rankBoard();
+        Object unrankBoard();
+        long rankPattern();
+        long unrankPattern();
+    }
+
+    /**
+     * Planning a whole solve of a headless board
+     */
+    public interface SolverOps
+    {
+        void setup(int corpusSize);
+        void nextBoard();
+        Object solve();
+    }
+
+    /**
+     * Optimal solves of headless boards
+     */
+    public interface IDASolverOps
+    {
+        void setup(int corpusSize, String heuristic, boolean incremental);
+        Object solve();
+    }
+
+    /**
+     * Pattern database builds on a number of threads
+     */
+    public interface PatternDatabaseOps
+    {
+        void setup(int threads, String tiles);
+        Object build();
+    }
+
+    /**
+     * Pattern database lookups and optimal solves with the tables in one format
+     */
+    public interface PatternFormatOps
+    {
+        void setup(String format);
+        int lookupDelta();
+        int estimate();
+        Object solve();
+    }
+
+    /**
+     * Reduction solves of scrambled boards of one size
+     */
+    public interface ReductionSolverOps
+    {
+        void setup(int side, int corpusSize);
+        Object solve();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * IDASolver on a fixed-seed corpus of headless boards
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IDASolverBenchmark
+{
+    @Param({"manhattan", "wd", "pdb"})
+    public String heuristic;
+
+    // false hides delta so every node is estimated from scratch
+    @Param({"true", "false"})
+    public boolean incremental;
+
+    private Fixtures.IDASolverOps ops;
+
+    @Setup
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.IDASolverOps.class, "IDASolverFixture");
+        ops.setup(32, heuristic, incremental);
+    }
+
+    @Benchmark
+    public Object solve()
+    {
+        return ops.solve();
+    }
+}
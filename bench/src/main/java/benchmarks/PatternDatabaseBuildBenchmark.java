@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PatternDatabaseBuilder building a 5 and a 6 Tile pattern from the
+ * default partition on 1, 2, 4 and 8 threads. Each build is one shot.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class PatternDatabaseBuildBenchmark
+{
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"1,5,6,9,10", "1,5,6,9,10,13"})
+    public String tiles;
+
+    private Fixtures.PatternDatabaseOps ops;
+
+    @Setup
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.PatternDatabaseOps.class, "PatternDatabaseFixture");
+        ops.setup(threads, tiles);
+    }
+
+    @Benchmark
+    public Object build()
+    {
+        return ops.build();
+    }
+}
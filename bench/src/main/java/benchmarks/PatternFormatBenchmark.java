@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The 6-6-3 pattern databases stored as BYTE, NIBBLE and TWO_BIT: the
+ * delta for one move, a full estimate, and IDASolver on a fixed-seed corpus
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PatternFormatBenchmark
+{
+    @Param({"byte", "nibble", "two_bit"})
+    public String format;
+
+    private Fixtures.PatternFormatOps ops;
+
+    @Setup
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.PatternFormatOps.class, "PatternFormatFixture");
+        ops.setup(format);
+    }
+
+    @Benchmark
+    public int lookupDelta()
+    {
+        return ops.lookupDelta();
+    }
+
+    @Benchmark
+    public int estimate()
+    {
+        return ops.estimate();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object solve()
+    {
+        return ops.solve();
+    }
+}
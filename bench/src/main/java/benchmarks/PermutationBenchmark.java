@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Permutation.randomPermutation(15, 100) followed by applyToList, the way
+ * App.generateBoard used to scramble a board, against
+ * BoardGenerator.nextPacked, which App uses now, and Permutation.rank and
+ * unrank on a fixed-seed corpus of whole 16 cell boards and 6 Tile pattern
+ * positions like the ones PatternDatabase looks up
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermutationBenchmark
+{
+    private Fixtures.PermutationOps ops;
+
+    @Setup
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.PermutationOps.class, "PermutationFixture");
+        ops.setup();
+    }
+
+    @Benchmark
+    public Object randomPermutationAndApply()
+    {
+        return ops.randomPermutationAndApply();
+    }
+
+    @Benchmark
+    public long generateBoard()
+    {
+        return ops.generateBoard();
+    }
+
+    @Benchmark
+    public long rankBoard()
+    {
+        return ops.rankBoard();
+    }
+
+    @Benchmark
+    public Object unrankBoard()
+    {
+        return ops.unrankBoard();
+    }
+
+    @Benchmark
+    public long rankPattern()
+    {
+        return ops.rankPattern();
+    }
+
+    @Benchmark
+    public long unrankPattern()
+    {
+        return ops.unrankPattern();
+    }
+}
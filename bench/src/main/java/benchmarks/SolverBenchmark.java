@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solver.plan for a whole board from a fixed-seed corpus, without JavaFX
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark
+{
+    private Fixtures.SolverOps ops;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ops = Fixtures.load(Fixtures.SolverOps.class, "SolverFixture");
+        ops.setup(64);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBoard()
+    {
+        ops.nextBoard();
+    }
+
+    @Benchmark
+    public Object solve()
+    {
+        return ops.solve();
+    }
+}